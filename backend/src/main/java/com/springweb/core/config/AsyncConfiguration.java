@@ -0,0 +1,9 @@
+package com.springweb.core.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+@Configuration
+@EnableAsync
+class AsyncConfiguration {
+}
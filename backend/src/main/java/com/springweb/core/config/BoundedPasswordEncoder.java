@@ -0,0 +1,106 @@
+package com.springweb.core.config;
+
+import com.springweb.core.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Giới hạn số phép BCrypt chạy đồng thời, để một đợt đăng nhập dồn dập không chiếm hết CPU và thread của Tomcat.
+ * BCrypt chạy ngay trên thread của request khi có chỗ; hết chỗ thì chỉ chờ tối đa maxWait (ngắn, cỡ vài lần băm)
+ * rồi từ chối bằng TooManyRequestsException (HTTP 429), thay vì xếp hàng dài và giữ thread của request.
+ * Khi số thread đang chờ đã chạm maxWaiters thì từ chối ngay, không chờ thêm.
+ */
+class BoundedPasswordEncoder implements PasswordEncoder {
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final Semaphore permits;
+    private final long maxWaitNanos;
+    private final int maxWaiters;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueWaitTimer;
+
+    BoundedPasswordEncoder(int strength, int concurrency, Duration maxWait, int maxWaiters, MeterRegistry meterRegistry) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.permits = new Semaphore(concurrency);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxWaiters = maxWaiters;
+
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.queueWaitTimer = Timer.builder("password.hash.queue.wait")
+                .description("Thời gian chờ tới lượt tính BCrypt")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("password.hash.queue.size", permits, Semaphore::getQueueLength)
+                .description("Số yêu cầu BCrypt đang chờ")
+                .register(meterRegistry);
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("password.hash.duration")
+                .description("Thời gian tính BCrypt")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /** Băm lại khi cost của mật khẩu đã lưu khác cost đang cấu hình (cả tăng lẫn giảm) */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    private <T> T run(Timer hashTimer, Supplier<T> task) {
+        long startedAt = System.nanoTime();
+        boolean acquired = permits.tryAcquire();
+        // hàng chờ đã đầy: từ chối ngay thay vì thêm một thread nữa vào chờ
+        if (!acquired && permits.getQueueLength() >= maxWaiters) {
+            throw new TooManyRequestsException("Hệ thống đang bận, vui lòng thử lại sau");
+        }
+        try {
+            acquired = acquired || permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Password hashing was interrupted", e);
+        }
+        queueWaitTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            throw new TooManyRequestsException("Hệ thống đang bận, vui lòng thử lại sau");
+        }
+
+        try {
+            return hashTimer.record(task);
+        } finally {
+            permits.release();
+        }
+    }
+}
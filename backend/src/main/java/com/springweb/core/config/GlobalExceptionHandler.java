@@ -2,8 +2,11 @@ package com.springweb.core.config;
 
 import com.springweb.core.dto.APIErrorResponseDto;
 import com.springweb.core.exception.BusinessException;
+import com.springweb.core.exception.IdempotencyConflictException;
+import com.springweb.core.exception.TooManyRequestsException;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -28,6 +31,25 @@ public class GlobalExceptionHandler {
         return error(HttpStatus.BAD_REQUEST, ex.getErrorCode(), ex.getMessage());
     }
 
+    // Server busy (e.g. password hashing queue is full)
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<APIErrorResponseDto> handleTooManyRequests(TooManyRequestsException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new APIErrorResponseDto("TOO_MANY_REQUESTS", ex.getMessage()));
+    }
+
+    // Idempotency-Key: đang xử lý (409, thử lại sau) hoặc dùng lại cho request khác (422)
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<APIErrorResponseDto> handleIdempotencyConflict(IdempotencyConflictException ex) {
+        if (ex.isInProgress()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new APIErrorResponseDto(ex.getErrorCode(), ex.getMessage()));
+        }
+        return error(HttpStatus.UNPROCESSABLE_ENTITY, ex.getErrorCode(), ex.getMessage());
+    }
+
     // Validation @Valid + @RequestBody
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<APIErrorResponseDto> handleValidationErrors(MethodArgumentNotValidException ex) {
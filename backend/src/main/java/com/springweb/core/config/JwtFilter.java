@@ -1,14 +1,17 @@
 package com.springweb.core.config;
 
-import com.springweb.core.repository.JwtTokenBlacklistRepository;
-import com.springweb.core.service.UserService;
+import com.springweb.core.service.SecurityState;
+import com.springweb.core.service.SecurityStateService;
+import com.springweb.core.service.TokenBlacklistService;
 import com.springweb.core.util.JwtUtils;
+import com.springweb.core.util.VerifiedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -18,13 +21,13 @@ import java.io.IOException;
 @Component
 class JwtFilter extends OncePerRequestFilter {
     private final JwtUtils jwtUtils;
-    private final UserService userService;
-    private final JwtTokenBlacklistRepository blacklistRepository;
+    private final TokenBlacklistService tokenBlacklistService;
+    private final SecurityStateService securityStateService;
 
-    public JwtFilter(JwtUtils jwtUtils, UserService userService, JwtTokenBlacklistRepository blacklistRepository) {
+    public JwtFilter(JwtUtils jwtUtils, TokenBlacklistService tokenBlacklistService, SecurityStateService securityStateService) {
         this.jwtUtils = jwtUtils;
-        this.userService = userService;
-        this.blacklistRepository = blacklistRepository;
+        this.tokenBlacklistService = tokenBlacklistService;
+        this.securityStateService = securityStateService;
     }
 
     @Override
@@ -32,23 +35,33 @@ class JwtFilter extends OncePerRequestFilter {
         String token = jwtUtils.extractAccessToken(request);
 
         try {
-            if (token != null && jwtUtils.isValid(token)) {
-                String jti = jwtUtils.extractJti(token);
-                if (!blacklistRepository.existsByJti(jti)) {
-                    String email = jwtUtils.extractUsername(token);
-                    UserDetails user = userService.loadUserByUsername(email);
+            VerifiedToken verified = token != null ? jwtUtils.verify(token).orElse(null) : null;
+            // Refresh token chỉ dùng được ở /api/v1/auth/refresh
+            if (verified != null && verified.isAccessToken()) {
+                if (!tokenBlacklistService.isRevoked(verified.jti())) {
+                    String email = verified.subject();
+                    SecurityState state = securityStateService.get(email);
 
                     // If account is locked, do not authenticate
-                    if (!user.isAccountNonLocked()) {
+                    if (state != null && state.locked()) {
                         response.setStatus(HttpServletResponse.SC_FORBIDDEN);
                         response.setContentType("application/json");
                         response.getWriter().write("{\"error\":\"Account is locked\"}");
                         return;
                     }
 
-                    UsernamePasswordAuthenticationToken authenticationToken =
-                            new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
-                    SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                    // Token cấp trước lần khóa/đổi quyền gần nhất không còn hiệu lực
+                    if (state != null && verified.role() != null
+                            && Integer.valueOf(state.version()).equals(verified.securityVersion())) {
+                        UserDetails user = User.withUsername(email)
+                                .password("")
+                                .authorities(verified.role())
+                                .build();
+
+                        UsernamePasswordAuthenticationToken authenticationToken =
+                                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+                        SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                    }
                 }
             }
         } catch (Exception e) {
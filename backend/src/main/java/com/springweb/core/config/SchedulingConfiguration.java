@@ -0,0 +1,24 @@
+package com.springweb.core.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+@EnableScheduling
+class SchedulingConfiguration {
+
+    /**
+     * Scheduler mặc định chỉ có một luồng: các job dài (vòng đời sự kiện, dọn blacklist, đối soát facet, nạp lại nhắc lịch)
+     * sẽ chặn các job ngắn và thường xuyên (tick nhắc lịch mỗi giây, đồng bộ blacklist)
+     */
+    @Bean(destroyMethod = "shutdown")
+    ThreadPoolTaskScheduler taskScheduler(@Value("${app.scheduling.pool-size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduling-");
+        return scheduler;
+    }
+}
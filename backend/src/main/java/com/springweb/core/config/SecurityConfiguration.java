@@ -1,5 +1,7 @@
 package com.springweb.core.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -8,10 +10,11 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 class SecurityConfiguration {
@@ -26,8 +29,13 @@ class SecurityConfiguration {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.password.bcrypt-strength:10}") int strength,
+            @Value("${app.password.concurrency:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int concurrency,
+            @Value("${app.password.max-wait:PT0.2S}") Duration maxWait,
+            @Value("${app.password.max-waiters:#{T(java.lang.Runtime).getRuntime().availableProcessors() * 4}}") int maxWaiters,
+            MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(strength, concurrency, maxWait, maxWaiters, meterRegistry);
     }
 
     @Bean
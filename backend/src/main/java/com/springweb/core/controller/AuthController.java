@@ -2,14 +2,18 @@ package com.springweb.core.controller;
 
 import com.springweb.core.dto.UserLoginDto;
 import com.springweb.core.dto.UserRegisterDto;
-import com.springweb.core.entity.JwtTokenBlacklist;
-import com.springweb.core.repository.JwtTokenBlacklistRepository;
+import com.springweb.core.exception.TooManyRequestsException;
+import com.springweb.core.service.SecurityState;
+import com.springweb.core.service.SecurityStateService;
+import com.springweb.core.service.TokenBlacklistService;
 import com.springweb.core.service.UserService;
 import com.springweb.core.util.JwtUtils;
+import com.springweb.core.util.VerifiedToken;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,13 +22,13 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.authentication.LockedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestMapping;
 
-import java.time.Instant;
 import java.util.Map;
 
 @RestController
@@ -33,16 +37,19 @@ class AuthController {
     private final UserService userService;
     private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtils;
-    private final JwtTokenBlacklistRepository jwtTokenBlacklistRepository;
+    private final TokenBlacklistService tokenBlacklistService;
+    private final SecurityStateService securityStateService;
 
     AuthController(UserService userService,
                    AuthenticationManager authenticationManager,
                    JwtUtils jwtUtils,
-                   JwtTokenBlacklistRepository jwtTokenBlacklistRepository) {
+                   TokenBlacklistService tokenBlacklistService,
+                   SecurityStateService securityStateService) {
         this.userService = userService;
         this.authenticationManager = authenticationManager;
         this.jwtUtils = jwtUtils;
-        this.jwtTokenBlacklistRepository = jwtTokenBlacklistRepository;
+        this.tokenBlacklistService = tokenBlacklistService;
+        this.securityStateService = securityStateService;
     }
 
     @PostMapping("/register")
@@ -59,26 +66,9 @@ class AuthController {
             );
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            UserDetails userDetails = userService.loadUserByUsername(dto.getEmail());
-            String accessToken = jwtUtils.generateAccessToken(userDetails);
-            String refreshToken = jwtUtils.generateRefreshToken(userDetails);
-
-            Cookie accessCookie = new Cookie("access_token", accessToken);
-            accessCookie.setHttpOnly(true);
-            accessCookie.setSecure(true); //HTTPS only
-            accessCookie.setAttribute("SameSite", "Strict"); //avoid CSRF
-            accessCookie.setPath("/");
-            accessCookie.setMaxAge((int) (jwtUtils.getAccessTokenExpirationTimeInMs() / 1000));
-
-            Cookie refreshCookie = new Cookie("refresh_token", refreshToken);
-            refreshCookie.setHttpOnly(true);
-            refreshCookie.setSecure(true);
-            refreshCookie.setAttribute("SameSite", "Strict");
-            refreshCookie.setPath("/");
-            refreshCookie.setMaxAge((int) (jwtUtils.getRefreshTokenExpirationTimeInMs() / 1000));
-
-            response.addCookie(accessCookie);
-            response.addCookie(refreshCookie);
+            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+            int securityVersion = securityStateService.get(userDetails.getUsername()).version();
+            issueTokens(userDetails, securityVersion, response);
 
             return ResponseEntity.ok(Map.of("message", "Login successful"));
         } catch (BadCredentialsException e) {
@@ -87,28 +77,85 @@ class AuthController {
         } catch (LockedException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", "Account is locked"));
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests();
         } catch (Exception e) {
+            // Spring Security bọc lỗi của PasswordEncoder khi kiểm tra user không tồn tại
+            if (e.getCause() instanceof TooManyRequestsException) {
+                return tooManyRequests();
+            }
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Internal server error"));
         }
     }
 
-    @PostMapping("/logout")
-    public ResponseEntity<?> logout(HttpServletRequest request, HttpServletResponse response) {
-        String token = jwtUtils.extractAccessToken(request);
-
-        if (token != null && jwtUtils.isValid(token)) {
-            String jti = jwtUtils.extractJti(token);
-            Instant expiresAt = jwtUtils.extractExpiration(token);
+    /**
+     * Đổi refresh token lấy cặp access/refresh mới (xoay vòng).
+     * Không chạy BCrypt và không đọc users: role/version lấy từ claim, kiểm tra qua SecurityStateService.
+     * Refresh token đã dùng bị thu hồi; nếu bị dùng lại thì mọi token của người dùng đều bị vô hiệu.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(HttpServletRequest request, HttpServletResponse response) {
+        String token = jwtUtils.extractRefreshToken(request);
+        VerifiedToken verified = token != null ? jwtUtils.verify(token).orElse(null) : null;
+
+        if (verified == null || !verified.isRefreshToken() || verified.role() == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Invalid refresh token"));
+        }
 
-            JwtTokenBlacklist tokenBlacklist = new JwtTokenBlacklist();
-            tokenBlacklist.setJti(jti);
-            tokenBlacklist.setCreatedAt(Instant.now());
-            tokenBlacklist.setExpiresAt(expiresAt);
+        if (!tokenBlacklistService.revokeOnce(verified.jti(), verified.expiresAt())) {
+            // Refresh token đã được dùng: có thể đã bị đánh cắp, thu hồi toàn bộ phiên của người dùng
+            userService.revokeAllTokens(verified.subject());
+            clearTokenCookies(response);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Refresh token has already been used"));
+        }
 
-            jwtTokenBlacklistRepository.save(tokenBlacklist);
+        SecurityState state = securityStateService.get(verified.subject());
+        if (state == null || !Integer.valueOf(state.version()).equals(verified.securityVersion())) {
+            clearTokenCookies(response);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Invalid refresh token"));
         }
+        if (state.locked()) {
+            clearTokenCookies(response);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Account is locked"));
+        }
+
+        UserDetails userDetails = User.withUsername(verified.subject())
+                .password("")
+                .authorities(verified.role())
+                .build();
+        issueTokens(userDetails, state.version(), response);
+
+        return ResponseEntity.ok(Map.of("message", "Token refreshed"));
+    }
+
+    private void issueTokens(UserDetails userDetails, int securityVersion, HttpServletResponse response) {
+        String accessToken = jwtUtils.generateAccessToken(userDetails, securityVersion);
+        String refreshToken = jwtUtils.generateRefreshToken(userDetails, securityVersion);
+
+        Cookie accessCookie = new Cookie("access_token", accessToken);
+        accessCookie.setHttpOnly(true);
+        accessCookie.setSecure(true); //HTTPS only
+        accessCookie.setAttribute("SameSite", "Strict"); //avoid CSRF
+        accessCookie.setPath("/");
+        accessCookie.setMaxAge((int) (jwtUtils.getAccessTokenExpirationTimeInMs() / 1000));
+
+        Cookie refreshCookie = new Cookie("refresh_token", refreshToken);
+        refreshCookie.setHttpOnly(true);
+        refreshCookie.setSecure(true);
+        refreshCookie.setAttribute("SameSite", "Strict");
+        refreshCookie.setPath("/");
+        refreshCookie.setMaxAge((int) (jwtUtils.getRefreshTokenExpirationTimeInMs() / 1000));
 
+        response.addCookie(accessCookie);
+        response.addCookie(refreshCookie);
+    }
+
+    private void clearTokenCookies(HttpServletResponse response) {
         Cookie accessCookie = new Cookie("access_token", null);
         accessCookie.setHttpOnly(true);
         accessCookie.setSecure(true);
@@ -123,6 +170,30 @@ class AuthController {
 
         response.addCookie(accessCookie);
         response.addCookie(refreshCookie);
+    }
+
+    private ResponseEntity<?> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", "Too many login attempts, please try again later"));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(HttpServletRequest request, HttpServletResponse response) {
+        String token = jwtUtils.extractAccessToken(request);
+
+        if (token != null) {
+            jwtUtils.verify(token)
+                    .ifPresent(verified -> tokenBlacklistService.revoke(verified.jti(), verified.expiresAt()));
+        }
+
+        String refreshToken = jwtUtils.extractRefreshToken(request);
+        if (refreshToken != null) {
+            jwtUtils.verify(refreshToken)
+                    .ifPresent(verified -> tokenBlacklistService.revoke(verified.jti(), verified.expiresAt()));
+        }
+
+        clearTokenCookies(response);
 
         return ResponseEntity.ok(Map.of("message", "Logged out successfully"));
     }
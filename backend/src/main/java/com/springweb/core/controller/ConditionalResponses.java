@@ -0,0 +1,26 @@
+package com.springweb.core.controller;
+
+import com.springweb.core.util.Versioned;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * GET có điều kiện: so If-None-Match / If-Modified-Since với phiên bản hiện tại,
+ * trả 304 (thân rỗng) mà không dựng DTO nếu client đã có bản mới nhất
+ */
+final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    static <T> ResponseEntity<T> ok(WebRequest request, Versioned<T> versioned) {
+        if (request.checkNotModified(versioned.etag(), versioned.lastModifiedMillis())) {
+            // checkNotModified đã đặt 304 và header ETag / Last-Modified
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(versioned.body().get());
+    }
+}
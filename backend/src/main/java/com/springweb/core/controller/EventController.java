@@ -1,16 +1,27 @@
 package com.springweb.core.controller;
 
 import com.springweb.core.dto.*;
+import com.springweb.core.entity.RegistrationStatus;
+import com.springweb.core.service.EventExportService;
+import com.springweb.core.service.EventFacetService;
 import com.springweb.core.service.EventService;
+import com.springweb.core.service.IdempotencyService;
+import com.springweb.core.service.UpcomingEventsService;
+import com.springweb.core.util.Versioned;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -19,9 +30,21 @@ import java.util.Map;
 @RequestMapping("/api/v1/events")
 class EventController {
     private final EventService eventService;
+    private final EventFacetService eventFacetService;
+    private final UpcomingEventsService upcomingEventsService;
+    private final IdempotencyService idempotencyService;
+    private final EventExportService eventExportService;
 
-    EventController(EventService eventService) {
+    EventController(EventService eventService,
+                    EventFacetService eventFacetService,
+                    UpcomingEventsService upcomingEventsService,
+                    IdempotencyService idempotencyService,
+                    EventExportService eventExportService) {
         this.eventService = eventService;
+        this.eventFacetService = eventFacetService;
+        this.upcomingEventsService = upcomingEventsService;
+        this.idempotencyService = idempotencyService;
+        this.eventExportService = eventExportService;
     }
 
     /** GET: event list */
@@ -36,23 +59,84 @@ class EventController {
             @RequestParam(required = false) String status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "startAt,desc") String sort) {
+            @RequestParam(defaultValue = "startAt,desc") String sort,
+            WebRequest request) {
 
-        Page<EventDetailDto> result = eventService.getEvents(
+        Versioned<Page<EventDetailDto>> result = eventService.getEvents(
                 userDetails.getUsername(),
                 category, city, district, ward, status,
                 page, size, sort
         );
+        return ConditionalResponses.ok(request, result);
+    }
+
+    /** GET: event list with keyset (cursor) pagination, no total count unless requested */
+    @GetMapping("/scroll")
+    @PreAuthorize("hasRole('ROLE_VOLUNTEER')")
+    public ResponseEntity<EventSliceDto> scrollEvents(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String district,
+            @RequestParam(required = false) String ward,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        EventSliceDto result = eventService.getEventsAfter(
+                userDetails.getUsername(),
+                category, city, district, ward, status,
+                cursor, size, includeTotal
+        );
         return ResponseEntity.ok(result);
     }
 
+    /** GET: per-value counts for the event filter dropdowns, served from memory */
+    @GetMapping("/facets")
+    public ResponseEntity<EventFacetsDto> getFacets(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String district,
+            @RequestParam(required = false) String ward) {
+        return ResponseEntity.ok(eventFacetService.getFacets(status, category, city, district, ward));
+    }
+
+    /** GET: next approved events that have not started yet, served from memory */
+    @GetMapping("/upcoming")
+    public ResponseEntity<List<EventSummaryDto>> getUpcomingEvents(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String category) {
+        return ResponseEntity.ok(upcomingEventsService.next(limit, city, category));
+    }
+
+    /** GET: events with the most active registrations (window: 24h, 7d or all) */
+    @GetMapping("/hot")
+    public ResponseEntity<List<EventDetailDto>> getHotEvents(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(defaultValue = "7d") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(eventService.getHotEvents(userDetails.getUsername(), window, limit));
+    }
+
+    /** GET: keyword search over title, description, location and category (diacritics are ignored) */
+    @GetMapping("/search")
+    public ResponseEntity<List<EventDetailDto>> searchEvents(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(eventService.searchEvents(userDetails.getUsername(), q, limit));
+    }
+
     /** GET: details of an event */
     @GetMapping("/{eventId}")
     public ResponseEntity<EventDetailDto> getEvent(
             @AuthenticationPrincipal UserDetails userDetails,
-            @PathVariable Integer eventId) {
-        EventDetailDto dto = eventService.getEventDetail(eventId, userDetails.getUsername());
-        return ResponseEntity.ok(dto);
+            @PathVariable Integer eventId,
+            WebRequest request) {
+        return ConditionalResponses.ok(request, eventService.getVersionedEventDetail(eventId, userDetails.getUsername()));
     }
 
     /** POST: Register an event (For volunteer) */
@@ -60,10 +144,14 @@ class EventController {
     @PreAuthorize("hasRole('ROLE_VOLUNTEER')")
     public ResponseEntity<?> registerEvent(
             @PathVariable Integer eventId,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey) {
 
-        eventService.registerEvent(eventId, userDetails.getUsername());
-        return ResponseEntity.ok(Map.of("message", "Successfully registered event"));
+        return idempotencyService.execute(idempotencyKey, userDetails.getUsername(),
+                "POST /events/" + eventId + "/register", null, () -> {
+                    eventService.registerEvent(eventId, userDetails.getUsername());
+                    return ResponseEntity.ok(Map.of("message", "Successfully registered event"));
+                });
     }
 
     /** DELETE: Cancel registration for an event (For volunteer) */
@@ -87,6 +175,18 @@ class EventController {
         return ResponseEntity.ok(list);
     }
 
+    /** GET: My registrations page by page, newest first, optionally filtered by registration status (For volunteer) */
+    @GetMapping("/my-registrations/page")
+    @PreAuthorize("hasRole('ROLE_VOLUNTEER')")
+    public ResponseEntity<Page<MyRegistrationDto>> myRegistrationsPage(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "20") Integer size) {
+
+        return ResponseEntity.ok(eventService.getMyRegistrations(userDetails.getUsername(), status, page, size));
+    }
+
     /** POST: Create a new event (For manager) */
     @PostMapping
     @PreAuthorize("hasRole('ROLE_MANAGER')")
@@ -148,6 +248,16 @@ class EventController {
         return ResponseEntity.ok(Map.of("message", "Successfully resolved registration!"));
     }
 
+    /** PATCH: Approve/Reject many registrations at once, with a result per registration (For manager) */
+    @PatchMapping("/registrations")
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    public ResponseEntity<RegistrationBatchResultDto> reviewRegistrations(
+            @Valid @RequestBody RegistrationBatchDto dto,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        return ResponseEntity.ok(eventService.reviewRegistrations(dto, userDetails.getUsername()));
+    }
+
     /** GET: Get registrations list for an event (For manager) */
     @GetMapping("/{eventId}/registrations")
     @PreAuthorize("hasRole('ROLE_MANAGER')")
@@ -158,6 +268,53 @@ class EventController {
         return ResponseEntity.ok(list);
     }
 
+    /** GET: Export all events as CSV or NDJSON, streamed row by row, optionally gzip-compressed (For admin) */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportEvents(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        EventExportService.Format exportFormat = EventExportService.Format.parse(format);
+        String filename = "events." + exportFormat.extension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(out -> eventExportService.export(exportFormat, gzip, out));
+    }
+
+    /** GET: Registrations of an event page by page, filtered by status and sorted (For manager) */
+    @GetMapping("/{eventId}/registrations/page")
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    public ResponseEntity<Page<EventRegistrationDto>> listRegistrationsPage(
+            @PathVariable Integer eventId,
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "50") Integer size,
+            @RequestParam(defaultValue = "registrationDate,asc") String sort) {
+
+        return ResponseEntity.ok(eventService.getRoster(eventId, userDetails.getUsername(), status, page, size, sort));
+    }
+
+    /** GET: Registrations of an event as a streamed CSV sorted by name, for check-in desks (For manager) */
+    @GetMapping("/{eventId}/registrations/export")
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    public ResponseEntity<StreamingResponseBody> exportRegistrations(
+            @PathVariable Integer eventId,
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) String status) {
+
+        // kiểm tra trước khi bắt đầu stream, lúc response chưa được gửi đi
+        eventService.checkEventOwner(eventId, userDetails.getUsername());
+        RegistrationStatus statusFilter = EventService.parseRegistrationStatus(status);
+        return ResponseEntity.ok()
+                .contentType(EventExportService.Format.CSV.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("event-" + eventId + "-registrations.csv").build().toString())
+                .body(out -> eventExportService.exportRoster(eventId, statusFilter, out));
+    }
+
     /** PATCH: Approve/Reject an event created by a manager (For admin) */
     @PatchMapping("/{eventId}/admin-review")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
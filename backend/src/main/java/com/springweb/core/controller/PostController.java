@@ -4,6 +4,7 @@ import com.springweb.core.dto.CommentCreateDto;
 import com.springweb.core.dto.PostCreateDto;
 import com.springweb.core.entity.Comment;
 import com.springweb.core.entity.Post;
+import com.springweb.core.service.IdempotencyService;
 import com.springweb.core.service.PostService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -11,6 +12,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -19,18 +21,23 @@ import java.util.Map;
 @RequestMapping("/api/v1/posts")
 class PostController {
     private final PostService postService;
+    private final IdempotencyService idempotencyService;
 
-    PostController(PostService postService) {
+    PostController(PostService postService, IdempotencyService idempotencyService) {
         this.postService = postService;
+        this.idempotencyService = idempotencyService;
     }
 
     // Create a post on an event's channel (only when event is approved)
     @PostMapping("/create")
     @PreAuthorize("hasAnyRole('VOLUNTEER', 'MANAGER')")
     public ResponseEntity<?> createPost(@Valid @RequestBody PostCreateDto dto,
-                                        @AuthenticationPrincipal UserDetails userDetails) {
-        postService.createNewPost(dto, userDetails.getUsername());
-        return ResponseEntity.ok(Map.of("message", "Create new post successfully"));
+                                        @AuthenticationPrincipal UserDetails userDetails,
+                                        @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, userDetails.getUsername(), "POST /posts/create", dto, () -> {
+            postService.createNewPost(dto, userDetails.getUsername());
+            return ResponseEntity.ok(Map.of("message", "Create new post successfully"));
+        });
     }
 
     // Add a comment to a post (only when event is approved)
@@ -38,9 +45,12 @@ class PostController {
     @PreAuthorize("hasAnyRole('VOLUNTEER', 'MANAGER')")
     public ResponseEntity<?> addComment(@PathVariable Integer postId,
                                         @Valid @RequestBody CommentCreateDto dto,
-                                        @AuthenticationPrincipal UserDetails userDetails) {
-        postService.addComment(postId, dto, userDetails.getUsername());
-        return ResponseEntity.ok(Map.of("message", "Comment added successfully"));
+                                        @AuthenticationPrincipal UserDetails userDetails,
+                                        @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, userDetails.getUsername(), "POST /posts/" + postId + "/comments", dto, () -> {
+            postService.addComment(postId, dto, userDetails.getUsername());
+            return ResponseEntity.ok(Map.of("message", "Comment added successfully"));
+        });
     }
 
     // Like/Unlike a post toggle (only when event is approved)
@@ -54,15 +64,13 @@ class PostController {
 
     // List posts by event (only available when event is approved)
     @GetMapping("/by-event/{eventId}")
-    public ResponseEntity<List<Post>> listPosts(@PathVariable Integer eventId) {
-        List<Post> posts = postService.getPostsByEvent(eventId);
-        return ResponseEntity.ok(posts);
+    public ResponseEntity<List<Post>> listPosts(@PathVariable Integer eventId, WebRequest request) {
+        return ConditionalResponses.ok(request, postService.getPostsByEvent(eventId));
     }
 
     // List comments of a post
     @GetMapping("/{postId}/comments")
-    public ResponseEntity<List<Comment>> listComments(@PathVariable Integer postId) {
-        List<Comment> comments = postService.getCommentsByPost(postId);
-        return ResponseEntity.ok(comments);
+    public ResponseEntity<List<Comment>> listComments(@PathVariable Integer postId, WebRequest request) {
+        return ConditionalResponses.ok(request, postService.getCommentsByPost(postId));
     }
 }
@@ -2,9 +2,14 @@ package com.springweb.core.controller;
 
 import com.springweb.core.entity.User;
 import com.springweb.core.dto.ChangeUserRoleDto;
+import com.springweb.core.dto.ExportJobDto;
+import com.springweb.core.service.ExportJobService;
 import com.springweb.core.service.UserService;
-import com.springweb.core.util.ExportDataUtils;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,20 +19,23 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/users")
 class UserController {
     private final UserService userService;
-    private final ExportDataUtils exportDataUtils;
+    private final ExportJobService exportJobService;
 
     @Autowired
-    UserController(UserService userService, ExportDataUtils exportDataUtils) {
+    UserController(UserService userService, ExportJobService exportJobService) {
         this.userService = userService;
-        this.exportDataUtils = exportDataUtils;
+        this.exportJobService = exportJobService;
     }
 
     @GetMapping
@@ -35,10 +43,35 @@ class UserController {
         return userService.getAllUsers();
     }
 
+    /** POST: Start exporting users of a role to CSV; poll the returned job, then download it */
     @PreAuthorize("hasAnyRole('ADMIN')")
-    @GetMapping("/export")
-    public void exportUser(String role) throws IOException {
-        exportDataUtils.exportUserWithSpecificRoleToCsv(role);
+    @PostMapping("/export")
+    public ResponseEntity<ExportJobDto> exportUser(@RequestParam String role,
+                                                  @AuthenticationPrincipal UserDetails userDetails) {
+        ExportJobDto job = exportJobService.submitUserExport(role, userDetails.getUsername());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/users/export/" + job.jobId()))
+                .body(job);
+    }
+
+    /** GET: Status and progress of an export job */
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @GetMapping("/export/{jobId}")
+    public ExportJobDto getExportJob(@PathVariable String jobId,
+                                     @AuthenticationPrincipal UserDetails userDetails) {
+        return exportJobService.getJob(jobId, userDetails.getUsername());
+    }
+
+    /** GET: Download the CSV of a completed export job (supports Range) */
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @GetMapping("/export/{jobId}/download")
+    public void downloadExport(@PathVariable String jobId,
+                               @AuthenticationPrincipal UserDetails userDetails,
+                               HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        ExportJobService.Artifact artifact = exportJobService.getArtifact(jobId, userDetails.getUsername());
+        FileResponses.send(request, response, artifact.file(), artifact.size(), artifact.filename(),
+                new MediaType("text", "csv", StandardCharsets.UTF_8), artifact.sha256());
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -35,6 +35,9 @@ public record EventCreateDto(
         @NotBlank(message = "Thời gian kết thúc bắt buộc")
         @Pattern(regexp = "^\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}Z$",
                 message = "End time must be in this format: YYYY-MM-DDTHH:MM:SSZ")
-        String endAt
+        String endAt,
+
+        @Positive(message = "Capacity must be positive")
+        Integer capacity          // bỏ trống = không giới hạn
 
 ) {}
\ No newline at end of file
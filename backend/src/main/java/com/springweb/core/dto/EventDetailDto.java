@@ -15,5 +15,7 @@ public record EventDetailDto(
         String createdBy,
         Integer registeredCount,
         Boolean isRegistered,     // cho volunteer
-        Boolean isApproved        // cho manager/admin
+        Boolean isApproved,       // cho manager/admin
+        Integer capacity,         // null = không giới hạn
+        Integer availableSeats    // null = không giới hạn
 ) {}
\ No newline at end of file
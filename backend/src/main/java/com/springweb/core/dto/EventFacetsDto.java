@@ -0,0 +1,16 @@
+package com.springweb.core.dto;
+
+import java.util.Map;
+
+/**
+ * Số sự kiện theo từng giá trị bộ lọc. Mỗi nhóm được đếm với các bộ lọc còn lại
+ * (bỏ qua chính nó), để dropdown hiển thị được cả các lựa chọn khác.
+ */
+public record EventFacetsDto(
+        long total,                     // số sự kiện khớp toàn bộ bộ lọc
+        Map<String, Long> statuses,
+        Map<String, Long> categories,   // theo tên danh mục
+        Map<String, Long> cities,
+        Map<String, Long> districts,    // chỉ có khi đã chọn city
+        Map<String, Long> wards         // chỉ có khi đã chọn district
+) {}
@@ -0,0 +1,9 @@
+package com.springweb.core.dto;
+
+import java.util.List;
+
+public record EventSliceDto(
+        List<EventDetailDto> items,
+        String nextCursor,        // null khi đã hết dữ liệu
+        Long approximateTotal     // chỉ có khi client yêu cầu, lấy từ cache nên có thể lệch một chút
+) {}
@@ -0,0 +1,12 @@
+package com.springweb.core.dto;
+
+public record EventSummaryDto(
+        Integer eventId,
+        String title,
+        String categoryName,
+        String city,
+        String district,
+        String ward,
+        String startAt,
+        String endAt
+) {}
@@ -26,6 +26,9 @@ public record EventUpdateDto(
 
         @Pattern(regexp = "^(\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}(:\\d{2})?)?$",
                 message = "Thời gian phải định dạng ISO hoặc để trống")
-        String endAt
+        String endAt,
+
+        @Positive(message = "Sức chứa phải là số dương")
+        Integer capacity          // bỏ trống = không giới hạn
 
 ) {}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.springweb.core.dto;
+
+public record ExportJobDto(
+        String jobId,
+        String type,              // "USERS"
+        String status,            // "QUEUED", "RUNNING", "COMPLETED", "FAILED"
+        long processedRows,
+        long totalRows,           // ước tính lúc bắt đầu chạy
+        Integer progressPercent,
+        Long sizeBytes,
+        String sha256,
+        String createdAt,
+        String completedAt,
+        String expiresAt,
+        String error
+) {}
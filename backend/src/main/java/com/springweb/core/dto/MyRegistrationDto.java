@@ -0,0 +1,10 @@
+package com.springweb.core.dto;
+
+public record MyRegistrationDto(
+        Integer registrationId,
+        String registrationStatus,   // "PENDING", "APPROVED", "WAITLISTED", ...
+        String registrationDate,
+        String cancelAt,
+        EventSummaryDto event,
+        String eventStatus
+) {}
@@ -0,0 +1,19 @@
+package com.springweb.core.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record RegistrationBatchDto(
+
+        @NotEmpty(message = "Registration IDs are required")
+        @Size(max = 1000, message = "At most 1000 registrations per request")
+        List<@NotNull Integer> registrationIds,
+
+        @NotBlank(message = "Action is required")
+        String action             // "APPROVE" hoặc "REJECT"
+
+) {}
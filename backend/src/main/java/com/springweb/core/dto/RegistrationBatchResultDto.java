@@ -0,0 +1,16 @@
+package com.springweb.core.dto;
+
+import java.util.List;
+
+public record RegistrationBatchResultDto(
+        int succeeded,
+        int failed,
+        List<Item> results
+) {
+    /** Kết quả cho từng đơn: status là trạng thái mới nếu thành công, errorCode nếu bị bỏ qua */
+    public record Item(
+            Integer registrationId,
+            String status,
+            String errorCode
+    ) {}
+}
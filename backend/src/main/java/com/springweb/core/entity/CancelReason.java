@@ -0,0 +1,6 @@
+package com.springweb.core.entity;
+
+public enum CancelReason {
+    VOLUNTEER,      // tình nguyện viên tự hủy đơn
+    EVENT_CANCELLED // đơn bị hủy theo sự kiện khi người quản lý hủy sự kiện
+}
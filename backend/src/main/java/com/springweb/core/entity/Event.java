@@ -3,6 +3,8 @@ package com.springweb.core.entity;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.Instant;
 
@@ -11,7 +13,11 @@ import java.time.Instant;
 @Entity
 @Table(name = "events", schema = "spring_boot_db", indexes = {
         @Index(name = "category_id", columnList = "category_id"),
-        @Index(name = "created_by", columnList = "created_by")
+        @Index(name = "created_by", columnList = "created_by"),
+        @Index(name = "idx_events_status_location_start", columnList = "status, city, district, ward, start_at"),
+        @Index(name = "idx_events_status_start", columnList = "status, start_at"),
+        @Index(name = "idx_events_category_status_start", columnList = "category_id, status, start_at"),
+        @Index(name = "idx_events_start_id", columnList = "start_at, event_id")
 })
 public class Event {
     @Id
@@ -52,8 +58,23 @@ public class Event {
     @Column(length = 20)
     private EventStatus status;
 
+    // Sức chứa, null = không giới hạn
+    @Column(name = "capacity")
+    private Integer capacity;
+
+    // Chỉ đổi qua UPDATE có điều kiện trong EventRepository (tryTakeSeat/releaseSeat), Hibernate không ghi đè
+    @ColumnDefault("0")
+    @Column(name = "seats_taken", nullable = false, insertable = false, updatable = false)
+    private Integer seatsTaken = 0;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "created_by", nullable = false)
     private User createdBy;
 
+    // Dấu thời gian sửa đổi, dùng làm ETag; đăng ký/hủy/duyệt đơn cũng cập nhật vì ảnh hưởng registeredCount
+    @UpdateTimestamp
+    @ColumnDefault("CURRENT_TIMESTAMP(6)")
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
 }
\ No newline at end of file
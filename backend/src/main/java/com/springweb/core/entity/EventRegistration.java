@@ -13,7 +13,10 @@ import java.time.Instant;
 @Table(name = "event_registrations", schema = "spring_boot_db", indexes = {
         @Index(name = "user_id", columnList = "user_id"),
         @Index(name = "event_id", columnList = "event_id"),
-        @Index(name = "approved_by", columnList = "approved_by")
+        @Index(name = "approved_by", columnList = "approved_by"),
+        @Index(name = "idx_event_registrations_event_status_date", columnList = "event_id, status, registration_date")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uq_event_registrations_user_event", columnNames = {"user_id", "event_id"})
 })
 public class EventRegistration {
     @Id
@@ -40,6 +43,10 @@ public class EventRegistration {
     @Column(name = "cancel_at")
     private Instant cancelAt;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "cancel_reason", length = 20)
+    private CancelReason cancelReason;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "approved_by")
     private User approvedBy;
@@ -0,0 +1,39 @@
+package com.springweb.core.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "event_reminders_sent", schema = "spring_boot_db", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_event_reminders_sent_event_type_start", columnNames = {"event_id", "reminder_type", "start_at"})
+})
+public class EventReminderSent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "reminder_id", nullable = false)
+    private Integer id;
+
+    @Column(name = "event_id", nullable = false)
+    private Integer eventId;
+
+    @Column(name = "reminder_type", nullable = false, length = 10)
+    private String reminderType;
+
+    @Column(name = "start_at", nullable = false)
+    private Instant startAt;
+
+    @Column(name = "sent_at", nullable = false)
+    private Instant sentAt;
+
+}
@@ -5,5 +5,6 @@ public enum EventStatus {
     APPROVED,
     REJECTED,
     COMPLETED,
-    CANCELLED
+    CANCELLED,
+    EXPIRED         // chưa được duyệt khi đã tới giờ bắt đầu (bộ lập lịch vòng đời tự chuyển)
 }
\ No newline at end of file
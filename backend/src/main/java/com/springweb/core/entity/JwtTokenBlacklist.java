@@ -1,8 +1,10 @@
 package com.springweb.core.entity;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.ConstraintMode;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -10,6 +12,7 @@ import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
@@ -20,7 +23,10 @@ import java.time.Instant;
 @Setter
 @Entity
 @Table(name = "jwt_token_blacklist", schema = "spring_boot_db", indexes = {
-        @Index(name = "user_id", columnList = "user_id")
+        @Index(name = "user_id", columnList = "user_id"),
+        @Index(name = "idx_jwt_token_blacklist_expires_at", columnList = "expires_at")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uq_jwt_token_blacklist_jti", columnNames = {"jti", "expires_at"})
 })
 public class JwtTokenBlacklist {
     @Id
@@ -29,7 +35,8 @@ public class JwtTokenBlacklist {
     private Integer id;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "user_id", referencedColumnName = "user_id")
+    @JoinColumn(name = "user_id", referencedColumnName = "user_id",
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT)) // bảng partition không có foreign key
     private User user;
 
     @Size(max = 255)
@@ -39,6 +46,6 @@ public class JwtTokenBlacklist {
     @Column(name = "created_at")
     private Instant createdAt;
 
-    @Column(name = "expires_at")
+    @Column(name = "expires_at", nullable = false)
     private Instant expiresAt;
 }
\ No newline at end of file
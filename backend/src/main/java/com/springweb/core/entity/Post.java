@@ -14,6 +14,7 @@ import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.Instant;
 
@@ -46,4 +47,10 @@ public class Post {
     @Column(name = "created_date")
     private Instant createdDate;
 
+    // Dấu thời gian sửa đổi, dùng làm ETag; thêm bình luận cũng cập nhật
+    @UpdateTimestamp
+    @ColumnDefault("CURRENT_TIMESTAMP(6)")
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
 }
\ No newline at end of file
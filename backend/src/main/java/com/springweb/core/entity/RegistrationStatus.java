@@ -5,5 +5,6 @@ public enum RegistrationStatus {
     APPROVED,
     REJECTED,
     COMPLETED,
-    CANCELLED
+    CANCELLED,
+    WAITLISTED      // sự kiện đã đủ chỗ, tự động chuyển sang PENDING khi có người hủy
 }
\ No newline at end of file
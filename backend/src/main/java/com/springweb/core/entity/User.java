@@ -65,6 +65,11 @@ public class User {
     @Column(name = "status", nullable = false, length = 20)
     private UserStatus status;
 
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(name = "security_version", nullable = false)
+    private Integer securityVersion = 0;
+
     public enum UserStatus {
         ACTIVE,
         LOCKED,
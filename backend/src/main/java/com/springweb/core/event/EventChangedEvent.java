@@ -0,0 +1,18 @@
+package com.springweb.core.event;
+
+/**
+ * Phát ra từ EventService mỗi khi một sự kiện được tạo, sửa, đổi trạng thái hoặc bị xóa.
+ * before == null khi tạo mới, after == null khi xóa.
+ */
+public record EventChangedEvent(
+        EventSnapshot before,
+        EventSnapshot after
+) {
+    public Integer eventId() {
+        return after != null ? after.id() : before.id();
+    }
+
+    public boolean isDeleted() {
+        return after == null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.springweb.core.event;
+
+import com.springweb.core.entity.EventStatus;
+
+import java.time.Instant;
+
+/**
+ * Phát ra khi sự kiện được đóng (hoàn thành, hủy hoặc hết hạn), bởi người quản lý hoặc bộ lập lịch vòng đời,
+ * sau khi các đơn đăng ký đã được cập nhật hàng loạt.
+ * Các đơn bị hủy theo sự kiện được đánh dấu cancel_reason = EVENT_CANCELLED.
+ * managerEmail khác null khi sự kiện được đóng tự động (người quản lý cũng cần được báo).
+ */
+public record EventClosedEvent(
+        Integer eventId,
+        String title,
+        EventStatus status,
+        Instant closedAt,
+        String managerEmail
+) {}
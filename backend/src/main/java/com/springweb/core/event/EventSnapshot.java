@@ -0,0 +1,44 @@
+package com.springweb.core.event;
+
+import com.springweb.core.entity.Event;
+import com.springweb.core.entity.EventStatus;
+
+import java.time.Instant;
+
+/**
+ * Ảnh chụp bất biến các trường của sự kiện mà các index trong bộ nhớ cần,
+ * để listener chạy sau commit không phải đụng tới entity (có thể đã detach)
+ */
+public record EventSnapshot(
+        Integer id,
+        String title,
+        String description,
+        Integer categoryId,
+        String categoryName,
+        String city,
+        String district,
+        String ward,
+        Instant startAt,
+        Instant endAt,
+        EventStatus status
+) {
+    public static EventSnapshot of(Event event) {
+        return new EventSnapshot(
+                event.getId(),
+                event.getTitle(),
+                event.getDescription(),
+                event.getCategory() != null ? event.getCategory().getId() : null,
+                event.getCategory() != null ? event.getCategory().getCategoryName() : null,
+                event.getCity(),
+                event.getDistrict(),
+                event.getWard(),
+                event.getStartAt(),
+                event.getEndAt(),
+                event.getStatus()
+        );
+    }
+
+    public EventSnapshot withStatus(EventStatus newStatus) {
+        return new EventSnapshot(id, title, description, categoryId, categoryName, city, district, ward, startAt, endAt, newStatus);
+    }
+}
@@ -0,0 +1,23 @@
+package com.springweb.core.event;
+
+import com.springweb.core.entity.RegistrationStatus;
+
+import java.time.Instant;
+
+/**
+ * Phát ra từ EventService khi một đơn đăng ký được tạo hoặc đổi trạng thái.
+ * before == null khi đăng ký mới.
+ */
+public record RegistrationChangedEvent(
+        Integer eventId,
+        Instant registeredAt,
+        RegistrationStatus before,
+        RegistrationStatus after
+) {
+    /** Đơn còn hiệu lực (được tính vào độ "hot" của sự kiện) */
+    public static boolean isActive(RegistrationStatus status) {
+        return status == RegistrationStatus.PENDING
+                || status == RegistrationStatus.APPROVED
+                || status == RegistrationStatus.COMPLETED;
+    }
+}
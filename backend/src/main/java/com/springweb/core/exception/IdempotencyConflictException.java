@@ -0,0 +1,18 @@
+package com.springweb.core.exception;
+
+import lombok.Getter;
+
+/**
+ * Idempotency-Key đang được xử lý (retry tới quá sớm) hoặc bị dùng lại cho một request khác
+ */
+@Getter
+public class IdempotencyConflictException extends RuntimeException {
+    private final String errorCode;
+    private final boolean inProgress;
+
+    public IdempotencyConflictException(String errorCode, String message, boolean inProgress) {
+        super(message);
+        this.errorCode = errorCode;
+        this.inProgress = inProgress;
+    }
+}
@@ -0,0 +1,10 @@
+package com.springweb.core.exception;
+
+/**
+ * Máy chủ đang quá tải cho loại công việc này, client nên thử lại sau
+ */
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
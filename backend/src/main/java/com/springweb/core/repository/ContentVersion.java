@@ -0,0 +1,11 @@
+package com.springweb.core.repository;
+
+import java.time.Instant;
+
+/**
+ * Số bản ghi và thời điểm sửa đổi mới nhất của một danh sách, dùng để tính ETag
+ */
+public record ContentVersion(
+        Long count,
+        Instant lastModified
+) {}
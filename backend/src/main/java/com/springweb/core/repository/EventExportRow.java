@@ -0,0 +1,22 @@
+package com.springweb.core.repository;
+
+import com.springweb.core.entity.EventStatus;
+
+import java.time.Instant;
+
+/**
+ * Một dòng xuất dữ liệu sự kiện; số đăng ký được đếm ngay trong câu SQL
+ */
+public record EventExportRow(
+        Integer id,
+        String title,
+        String categoryName,
+        String city,
+        String district,
+        String ward,
+        EventStatus status,
+        Instant startAt,
+        Instant endAt,
+        Integer capacity,
+        Long registrationCount
+) {}
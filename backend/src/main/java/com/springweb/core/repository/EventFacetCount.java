@@ -0,0 +1,16 @@
+package com.springweb.core.repository;
+
+import com.springweb.core.entity.EventStatus;
+
+/**
+ * Số sự kiện theo từng tổ hợp (trạng thái, danh mục, tỉnh/thành, quận/huyện, phường/xã) – kết quả GROUP BY
+ */
+public record EventFacetCount(
+        EventStatus status,
+        Integer categoryId,
+        String categoryName,
+        String city,
+        String district,
+        String ward,
+        Long count
+) {}
@@ -0,0 +1,9 @@
+package com.springweb.core.repository;
+
+/**
+ * Số lượt đăng ký của một sự kiện (kết quả GROUP BY)
+ */
+public record EventRegistrationCount(
+        Integer eventId,
+        Long count
+) {}
@@ -1,13 +1,30 @@
 package com.springweb.core.repository;
 
+import com.springweb.core.entity.CancelReason;
 import com.springweb.core.entity.Event;
 import com.springweb.core.entity.EventRegistration;
 import com.springweb.core.entity.RegistrationStatus;
 import com.springweb.core.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface EventRegistrationRepository extends JpaRepository<EventRegistration, Integer> {
 
@@ -15,9 +32,150 @@ public interface EventRegistrationRepository extends JpaRepository<EventRegistra
 
     Optional<EventRegistration> findByUserAndEvent(User user, Event event);
 
+    @EntityGraph(attributePaths = {"event", "event.category", "event.createdBy"})
     List<EventRegistration> findByUser(User user);
 
+    @EntityGraph(attributePaths = {"user", "event"})
     List<EventRegistration> findByEvent(Event event);
 
     Integer countByEvent(Event event);
-}
\ No newline at end of file
+
+    // Đơn sớm nhất trong danh sách chờ; đọc có khóa để thấy bản mới nhất và không bị hai giao dịch cùng chuyển
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<EventRegistration> findFirstByEventAndStatusOrderByRegistrationDateAscIdAsc(Event event, RegistrationStatus status);
+
+    // Đếm đăng ký cho cả trang sự kiện trong một truy vấn
+    @Query("""
+        SELECT new com.springweb.core.repository.EventRegistrationCount(r.event.id, COUNT(r))
+        FROM EventRegistration r
+        WHERE r.event.id IN :eventIds
+        GROUP BY r.event.id
+        """)
+    List<EventRegistrationCount> countByEventIds(@Param("eventIds") Collection<Integer> eventIds);
+
+    // Các sự kiện (trong danh sách) mà người dùng đã đăng ký
+    @Query("SELECT r.event.id FROM EventRegistration r WHERE r.user.email = :email AND r.event.id IN :eventIds")
+    Set<Integer> findRegisteredEventIds(@Param("email") String email, @Param("eventIds") Collection<Integer> eventIds);
+
+    // Số đơn còn hiệu lực theo từng sự kiện (nạp bảng xếp hạng lúc khởi động)
+    @Query("""
+        SELECT new com.springweb.core.repository.EventRegistrationCount(r.event.id, COUNT(r))
+        FROM EventRegistration r
+        WHERE r.status IN :statuses
+        GROUP BY r.event.id
+        """)
+    List<EventRegistrationCount> countByStatusIn(@Param("statuses") Collection<RegistrationStatus> statuses);
+
+    @Query("""
+        SELECT new com.springweb.core.repository.RegistrationTimestamp(r.event.id, r.registrationDate)
+        FROM EventRegistration r
+        WHERE r.status IN :statuses AND r.registrationDate >= :since
+        """)
+    List<RegistrationTimestamp> findRegistrationTimesSince(@Param("statuses") Collection<RegistrationStatus> statuses,
+                                                           @Param("since") Instant since);
+
+    // Duyệt hàng loạt: đọc cả lô đơn kèm người tạo sự kiện trong một truy vấn để kiểm tra quyền
+    @Query("""
+        SELECT new com.springweb.core.repository.RegistrationReviewRow(
+            r.id, e.id, e.title, e.createdBy.id, r.status, r.registrationDate, u.email)
+        FROM EventRegistration r JOIN r.event e JOIN r.user u
+        WHERE r.id IN :ids
+        """)
+    List<RegistrationReviewRow> findReviewRows(@Param("ids") Collection<Integer> ids);
+
+    // Chỉ đổi các đơn vẫn còn ở trạng thái đã đọc: số dòng ít hơn nghĩa là có giao dịch khác vừa sửa
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE EventRegistration r SET r.status = :to, r.approvedBy = :reviewer
+        WHERE r.id IN :ids AND r.status = :from
+        """)
+    int updateStatus(@Param("ids") Collection<Integer> ids,
+                     @Param("from") RegistrationStatus from,
+                     @Param("to") RegistrationStatus to,
+                     @Param("reviewer") User reviewer);
+
+    // Đóng sự kiện: đổi trạng thái mọi đơn của sự kiện trong một câu UPDATE, không nạp từng đơn
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE EventRegistration r SET r.status = :to WHERE r.event.id = :eventId AND r.status IN :from")
+    int updateStatusByEvent(@Param("eventId") Integer eventId,
+                            @Param("from") Collection<RegistrationStatus> from,
+                            @Param("to") RegistrationStatus to);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE EventRegistration r SET r.status = :to WHERE r.event.id IN :eventIds AND r.status IN :from")
+    int updateStatusByEvents(@Param("eventIds") Collection<Integer> eventIds,
+                             @Param("from") Collection<RegistrationStatus> from,
+                             @Param("to") RegistrationStatus to);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE EventRegistration r SET r.status = 'CANCELLED', r.cancelAt = :cancelAt,
+            r.cancelReason = com.springweb.core.entity.CancelReason.EVENT_CANCELLED
+        WHERE r.event.id = :eventId AND r.status IN :from
+        """)
+    int cancelByEvent(@Param("eventId") Integer eventId,
+                      @Param("from") Collection<RegistrationStatus> from,
+                      @Param("cancelAt") Instant cancelAt);
+
+    // Người nhận thông báo theo trạng thái đơn (và lý do hủy nếu có), đọc theo từng đợt sau id cho trước
+    @Query("""
+        SELECT new com.springweb.core.repository.RegistrationRecipient(r.id, u.email)
+        FROM EventRegistration r JOIN r.user u
+        WHERE r.event.id = :eventId AND r.status = :status
+          AND (:cancelReason IS NULL OR r.cancelReason = :cancelReason)
+          AND r.id > :afterId
+        ORDER BY r.id
+        """)
+    List<RegistrationRecipient> findRecipients(@Param("eventId") Integer eventId,
+                                               @Param("status") RegistrationStatus status,
+                                               @Param("cancelReason") CancelReason cancelReason,
+                                               @Param("afterId") Integer afterId,
+                                               Limit limit);
+
+    // Đơn đăng ký của một người dùng kèm tóm tắt sự kiện, mới nhất trước; status == null là mọi trạng thái
+    @Query(value = """
+        SELECT new com.springweb.core.repository.MyRegistrationRow(
+            r.id, r.status, r.registrationDate, r.cancelAt,
+            e.id, e.title, c.categoryName, e.city, e.district, e.ward, e.startAt, e.endAt, e.status)
+        FROM EventRegistration r JOIN r.event e LEFT JOIN e.category c
+        WHERE r.user = :user AND (:status IS NULL OR r.status = :status)
+        ORDER BY r.registrationDate DESC, r.id DESC
+        """,
+        countQuery = """
+        SELECT COUNT(r) FROM EventRegistration r
+        WHERE r.user = :user AND (:status IS NULL OR r.status = :status)
+        """)
+    Page<MyRegistrationRow> findMyRegistrations(@Param("user") User user,
+                                                @Param("status") RegistrationStatus status,
+                                                Pageable pageable);
+
+    // Danh sách tình nguyện viên của sự kiện theo trang; thứ tự lấy từ Pageable (registrationDate, status, user.fullName)
+    @Query(value = """
+        SELECT new com.springweb.core.repository.RegistrationRosterRow(
+            r.id, u.id, u.fullName, u.email, u.phoneNumber, r.status, r.registrationDate, r.cancelAt)
+        FROM EventRegistration r JOIN r.user u
+        WHERE r.event.id = :eventId AND (:status IS NULL OR r.status = :status)
+        """,
+        countQuery = """
+        SELECT COUNT(r) FROM EventRegistration r
+        WHERE r.event.id = :eventId AND (:status IS NULL OR r.status = :status)
+        """)
+    Page<RegistrationRosterRow> findRoster(@Param("eventId") Integer eventId,
+                                           @Param("status") RegistrationStatus status,
+                                           Pageable pageable);
+
+    // Danh sách tình nguyện viên theo tên cho bàn check-in, đọc tuần tự qua con trỏ một chiều
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        SELECT new com.springweb.core.repository.RegistrationRosterRow(
+            r.id, u.id, u.fullName, u.email, u.phoneNumber, r.status, r.registrationDate, r.cancelAt)
+        FROM EventRegistration r JOIN r.user u
+        WHERE r.event.id = :eventId AND (:status IS NULL OR r.status = :status)
+        ORDER BY u.fullName, r.id
+        """)
+    Stream<RegistrationRosterRow> streamRoster(@Param("eventId") Integer eventId,
+                                               @Param("status") RegistrationStatus status);
+}
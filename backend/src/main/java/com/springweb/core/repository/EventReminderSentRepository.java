@@ -0,0 +1,25 @@
+package com.springweb.core.repository;
+
+import com.springweb.core.entity.EventReminderSent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface EventReminderSentRepository extends JpaRepository<EventReminderSent, Integer> {
+
+    // Giành quyền gửi một lần nhắc: trả về 1 nếu node này là node đầu tiên, 0 nếu đã có node khác gửi
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT IGNORE INTO event_reminders_sent (event_id, reminder_type, start_at, sent_at)
+        VALUES (:eventId, :type, :startAt, :sentAt)
+        """, nativeQuery = true)
+    int claim(@Param("eventId") Integer eventId,
+              @Param("type") String type,
+              @Param("startAt") Instant startAt,
+              @Param("sentAt") Instant sentAt);
+}
@@ -3,48 +3,134 @@ package com.springweb.core.repository;
 import com.springweb.core.entity.Event;
 import com.springweb.core.entity.EventStatus;
 import com.springweb.core.entity.PostLike;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
-public interface EventRepository extends JpaRepository<Event, Integer> {
+public interface EventRepository extends JpaRepository<Event, Integer>, JpaSpecificationExecutor<Event> {
 
-    // Danh sách sự kiện đã duyệt + filter
+    // Danh sách sự kiện + filter (điều kiện được ghép động trong EventSpecifications)
+    @Override
+    @EntityGraph(attributePaths = {"category", "createdBy"})
+    Page<Event> findAll(Specification<Event> spec, Pageable pageable);
+
+    // Chi tiết sự kiện kèm danh mục và người tạo trong cùng một truy vấn
+    @EntityGraph(attributePaths = {"category", "createdBy"})
+    Optional<Event> findWithDetailsById(Integer id);
+
+    // Cấp một chỗ nếu còn: điều kiện và tăng số chỗ trong cùng một câu UPDATE nên không thể vượt sức chứa
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Event e SET e.seatsTaken = e.seatsTaken + 1 WHERE e.id = :id AND (e.capacity IS NULL OR e.seatsTaken < e.capacity)")
+    int tryTakeSeat(@Param("id") Integer id);
+
+    // Trả lại một chỗ (hàng sự kiện bị khóa tới hết giao dịch, nên người trong danh sách chờ được ưu tiên nhận lại)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Event e SET e.seatsTaken = e.seatsTaken - 1 WHERE e.id = :id AND e.seatsTaken > 0")
+    int releaseSeat(@Param("id") Integer id);
+
+    // Cấp nhiều chỗ cùng lúc, được tất cả hoặc không gì cả
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Event e SET e.seatsTaken = e.seatsTaken + :count WHERE e.id = :id AND (e.capacity IS NULL OR e.seatsTaken + :count <= e.capacity)")
+    int tryTakeSeats(@Param("id") Integer id, @Param("count") int count);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Event e SET e.seatsTaken = CASE WHEN e.seatsTaken > :count THEN e.seatsTaken - :count ELSE 0 END WHERE e.id = :id")
+    int releaseSeats(@Param("id") Integer id, @Param("count") int count);
+
+    // Đánh dấu sự kiện đã đổi (ETag) khi đơn đăng ký được sửa bằng câu UPDATE hàng loạt
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Event e SET e.updatedAt = :now WHERE e.id IN :ids")
+    int touchUpdatedAt(@Param("ids") Collection<Integer> ids, @Param("now") Instant now);
+
+    // Chỉ đọc dấu thời gian sửa đổi (tính ETag trước khi quyết định có dựng DTO hay không)
+    @Query("SELECT e.updatedAt FROM Event e WHERE e.id = :id")
+    Optional<Instant> findUpdatedAtById(@Param("id") Integer id);
+
+    @EntityGraph(attributePaths = {"category", "createdBy"})
+    List<Event> findWithDetailsByIdIn(Collection<Integer> ids);
+
+    // Đếm theo mọi tổ hợp bộ lọc, dùng để đối soát số liệu facet giữ trong bộ nhớ
+    @Query("""
+        SELECT new com.springweb.core.repository.EventFacetCount(
+            e.status, c.id, c.categoryName, e.city, e.district, e.ward, COUNT(e))
+        FROM Event e LEFT JOIN e.category c
+        GROUP BY e.status, c.id, c.categoryName, e.city, e.district, e.ward
+        """)
+    List<EventFacetCount> countFacets();
+
+    // Sự kiện đã duyệt sắp diễn ra, gần nhất trước (nạp index sự kiện sắp tới)
+    @EntityGraph(attributePaths = {"category"})
+    @Query("SELECT e FROM Event e WHERE e.status = 'APPROVED' AND e.startAt > :now ORDER BY e.startAt ASC, e.id ASC")
+    List<Event> findUpcomingApproved(@Param("now") Instant now, Limit limit);
+
+    // Giờ bắt đầu các sự kiện đã duyệt chưa diễn ra (nạp hẹn giờ nhắc lịch)
+    @Query("SELECT new com.springweb.core.repository.EventStartTime(e.id, e.startAt) FROM Event e WHERE e.status = 'APPROVED' AND e.startAt > :now")
+    List<EventStartTime> findUpcomingApprovedStartTimes(@Param("now") Instant now);
+
+    // Id các sự kiện theo trạng thái (nạp bảng xếp hạng sự kiện hot)
+    @Query("SELECT e.id FROM Event e WHERE e.status = :status")
+    Set<Integer> findIdsByStatus(@Param("status") EventStatus status);
+
+    // Xuất dữ liệu: đọc tuần tự qua con trỏ một chiều (fetch size MIN_VALUE = MySQL trả từng dòng, không nạp cả bảng)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
     @Query("""
-        SELECT e FROM Event e
-        WHERE (:category IS NULL OR e.category.categoryName = :category)
-        AND (:city IS NULL OR e.city = :city)
-        AND (:district IS NULL OR e.district = :district)
-        AND (:ward IS NULL OR e.ward = :ward)
-        AND (:status IS NULL OR e.status = :status)
+        SELECT new com.springweb.core.repository.EventExportRow(
+            e.id, e.title, c.categoryName, e.city, e.district, e.ward, e.status, e.startAt, e.endAt, e.capacity,
+            (SELECT COUNT(r) FROM EventRegistration r WHERE r.event = e))
+        FROM Event e LEFT JOIN e.category c
+        ORDER BY e.id
         """)
-    Page<Event> findEvents(
-            @Param("category") String category,
-            @Param("city") String city,
-            @Param("district") String district,
-            @Param("ward") String ward,
-            @Param("status") String status,
-            Pageable pageable);
-
-    // Sự kiện sắp tới (cho dashboard)
-    @Query("SELECT e FROM Event e WHERE e.status = 'APPROVED' AND e.startAt > CURRENT_TIMESTAMP ORDER BY e.startAt ASC")
-    List<Event> findUpcomingApproved(int limit);
-
-    // Sự kiện "hot" – nhiều đăng ký nhất
-    @Query(value = """
-        SELECT e.* FROM events e 
-        JOIN event_registrations er ON e.event_id = er.event_id 
-        WHERE e.status = 'APPROVED'
-        GROUP BY e.event_id 
-        ORDER BY COUNT(er.registration_id) DESC 
-        LIMIT :limit
-        """, nativeQuery = true)
-    List<Event> findHotEvents(@Param("limit") int limit);
+    Stream<EventExportRow> streamForExport();
+
+    // Bộ lập lịch vòng đời: nhận một lô sự kiện đến hạn, khóa dòng và bỏ qua dòng đang bị giao dịch khác giữ (SKIP LOCKED)
+    // Giá trị lock timeout -2 = SKIP LOCKED (hằng LockOptions.SKIP_LOCKED đã deprecated ở Hibernate 6)
+    String SKIP_LOCKED = "-2";
+
+    // Khóa hàng sự kiện khi người quản lý sửa/đóng: bộ lập lịch vòng đời (SKIP LOCKED) bỏ qua hàng này,
+    // và trạng thái đọc được là bản mới nhất đã commit nên không ghi đè chuyển trạng thái của bộ lập lịch
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Event e WHERE e.id = :id")
+    Optional<Event> findForUpdateById(@Param("id") Integer id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = SKIP_LOCKED))
+    @Query("SELECT e FROM Event e WHERE e.status = 'APPROVED' AND e.endAt <= :now ORDER BY e.endAt ASC, e.id ASC")
+    List<Event> claimEndedApproved(@Param("now") Instant now, Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = SKIP_LOCKED))
+    @Query("SELECT e FROM Event e WHERE e.status = 'PENDING' AND e.startAt <= :now ORDER BY e.startAt ASC, e.id ASC")
+    List<Event> claimStartedPending(@Param("now") Instant now, Limit limit);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Event e SET e.status = :to, e.updatedAt = :now WHERE e.id IN :ids AND e.status = :from")
+    int transitionStatus(@Param("ids") Collection<Integer> ids,
+                         @Param("from") EventStatus from,
+                         @Param("to") EventStatus to,
+                         @Param("now") Instant now);
 
     // Tìm sự kiện theo ID + status
 //    Optional<Event> findByEventIdAndStatus(Long eventId, EventStatus status);
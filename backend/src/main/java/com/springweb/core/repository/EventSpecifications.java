@@ -0,0 +1,65 @@
+package com.springweb.core.repository;
+
+import com.springweb.core.entity.Event;
+import com.springweb.core.entity.EventStatus;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Điều kiện lọc sự kiện được ghép động: chỉ sinh predicate cho tham số thực sự được truyền,
+ * để MySQL chọn được index phù hợp (xem database/v6_add_event_filter_indexes.sql)
+ * thay vì kiểu (:param IS NULL OR e.col = :param) luôn phải quét bảng.
+ */
+public final class EventSpecifications {
+
+    private EventSpecifications() {
+    }
+
+    public static Specification<Event> filter(Integer categoryId, String city, String district, String ward, EventStatus status) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (categoryId != null) {
+                // so sánh trực tiếp với cột category_id, không join bảng categories
+                predicates.add(cb.equal(root.get("category").get("id"), categoryId));
+            }
+            if (city != null) {
+                predicates.add(cb.equal(root.get("city"), city));
+            }
+            if (district != null) {
+                predicates.add(cb.equal(root.get("district"), district));
+            }
+            if (ward != null) {
+                predicates.add(cb.equal(root.get("ward"), ward));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Các sự kiện đứng sau (startAt, id) theo thứ tự startAt DESC, id DESC.
+     * start_at có thể NULL; MySQL coi NULL nhỏ nhất nên khi sắp DESC các sự kiện chưa có giờ bắt đầu nằm cuối
+     * (theo id DESC). Predicate phải khớp đúng thứ tự đó, vì phép so sánh nhỏ hơn / bằng không bao giờ khớp NULL.
+     */
+    public static Specification<Event> seekAfter(Instant startAt, Integer id) {
+        if (startAt == null) {
+            return (root, query, cb) -> cb.and(cb.isNull(root.get("startAt")), cb.lessThan(root.get("id"), id));
+        }
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("startAt"), startAt),
+                cb.and(cb.equal(root.get("startAt"), startAt), cb.lessThan(root.get("id"), id)),
+                cb.isNull(root.get("startAt"))
+        );
+    }
+
+    /** Các sự kiện có id lớn hơn lastId, dùng để duyệt toàn bảng theo lô (id ASC) */
+    public static Specification<Event> idGreaterThan(Integer lastId) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), lastId);
+    }
+}
@@ -0,0 +1,11 @@
+package com.springweb.core.repository;
+
+import java.time.Instant;
+
+/**
+ * Giờ bắt đầu của một sự kiện, dùng để nạp hẹn giờ nhắc lịch
+ */
+public record EventStartTime(
+        Integer eventId,
+        Instant startAt
+) {}
@@ -2,7 +2,26 @@ package com.springweb.core.repository;
 
 import com.springweb.core.entity.JwtTokenBlacklist;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
 
 public interface JwtTokenBlacklistRepository extends JpaRepository<JwtTokenBlacklist, Integer> {
     boolean existsByJti(String jti);
+
+    // Toàn bộ token bị thu hồi còn hiệu lực (nạp lúc khởi động, kể cả bản ghi cũ không có created_at)
+    List<JwtTokenBlacklist> findByExpiresAtAfter(Instant now);
+
+    // Các token bị thu hồi còn hiệu lực, tạo từ thời điểm since (dùng để nạp/đồng bộ cache)
+    List<JwtTokenBlacklist> findByCreatedAtGreaterThanEqualAndExpiresAtAfterOrderByCreatedAtAsc(Instant since, Instant now);
+
+    // Xóa theo từng lô nhỏ, mỗi lô là một transaction riêng để không giữ khóa lâu
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM jwt_token_blacklist WHERE expires_at < :now LIMIT :limit", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") Instant now, @Param("limit") int limit);
 }
@@ -0,0 +1,25 @@
+package com.springweb.core.repository;
+
+import com.springweb.core.entity.EventStatus;
+import com.springweb.core.entity.RegistrationStatus;
+
+import java.time.Instant;
+
+/**
+ * Một đơn đăng ký của người dùng kèm thông tin tóm tắt của sự kiện, đọc trong một truy vấn
+ */
+public record MyRegistrationRow(
+        Integer registrationId,
+        RegistrationStatus registrationStatus,
+        Instant registrationDate,
+        Instant cancelAt,
+        Integer eventId,
+        String title,
+        String categoryName,
+        String city,
+        String district,
+        String ward,
+        Instant startAt,
+        Instant endAt,
+        EventStatus eventStatus
+) {}
@@ -3,9 +3,12 @@ package com.springweb.core.repository;
 import com.springweb.core.entity.Event;
 import com.springweb.core.entity.Post;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -19,4 +22,13 @@ public interface PostRepository extends JpaRepository<Post, Integer> {
     List<Event> findEventsWithRecentPosts(@Param("sevenDaysAgo") LocalDateTime sevenDaysAgo);
 
     List<Post> findByEventOrderByCreatedDateDesc(Event event);
+
+    @Query("SELECT new com.springweb.core.repository.ContentVersion(COUNT(p), MAX(p.updatedAt)) FROM Post p WHERE p.event = :event")
+    ContentVersion findVersionByEvent(@Param("event") Event event);
+
+    // Chỉ đổi updated_at (phiên bản của danh sách bình luận), không ghi lại cả bài viết đọc không khóa
+    @Transactional
+    @Modifying
+    @Query("UPDATE Post p SET p.updatedAt = :now WHERE p.id = :id")
+    int touchUpdatedAt(@Param("id") Integer id, @Param("now") Instant now);
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.springweb.core.repository;
+
+/**
+ * Người nhận thông báo theo đơn đăng ký; id đơn dùng làm vị trí keyset khi duyệt theo từng đợt
+ */
+public record RegistrationRecipient(
+        Integer registrationId,
+        String email
+) {}
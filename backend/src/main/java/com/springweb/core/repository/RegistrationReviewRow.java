@@ -0,0 +1,18 @@
+package com.springweb.core.repository;
+
+import com.springweb.core.entity.RegistrationStatus;
+
+import java.time.Instant;
+
+/**
+ * Thông tin tối thiểu của một đơn đăng ký để duyệt hàng loạt (kiểm tra quyền, trạng thái, gửi thông báo)
+ */
+public record RegistrationReviewRow(
+        Integer registrationId,
+        Integer eventId,
+        String eventTitle,
+        Integer eventCreatorId,
+        RegistrationStatus status,
+        Instant registrationDate,
+        String userEmail
+) {}
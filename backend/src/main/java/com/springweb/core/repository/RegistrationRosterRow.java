@@ -0,0 +1,19 @@
+package com.springweb.core.repository;
+
+import com.springweb.core.entity.RegistrationStatus;
+
+import java.time.Instant;
+
+/**
+ * Một dòng danh sách tình nguyện viên của sự kiện, đọc cùng thông tin người dùng trong một truy vấn
+ */
+public record RegistrationRosterRow(
+        Integer registrationId,
+        Integer userId,
+        String fullName,
+        String email,
+        String phoneNumber,
+        RegistrationStatus status,
+        Instant registrationDate,
+        Instant cancelAt
+) {}
@@ -0,0 +1,11 @@
+package com.springweb.core.repository;
+
+import java.time.Instant;
+
+/**
+ * Thời điểm đăng ký của một đơn còn hiệu lực, dùng để nạp lại bộ đếm theo cửa sổ thời gian
+ */
+public record RegistrationTimestamp(
+        Integer eventId,
+        Instant registeredAt
+) {}
@@ -0,0 +1,33 @@
+package com.springweb.core.repository;
+
+import com.springweb.core.entity.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    // Tạo dòng khóa nếu chưa có (đã hết hạn sẵn); chạy song song trên nhiều node vẫn chỉ một dòng
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO scheduler_leases (name, owner, lease_until) VALUES (:name, NULL, '1970-01-01 00:00:01')",
+            nativeQuery = true)
+    int createIfMissing(@Param("name") String name);
+
+    // Giành hoặc gia hạn khóa: chỉ thành công khi khóa đã hết hạn hoặc đang thuộc về chính node này
+    @Modifying
+    @Query("""
+        UPDATE SchedulerLease l SET l.owner = :owner, l.leaseUntil = :until
+        WHERE l.name = :name AND (l.leaseUntil < :now OR l.owner = :owner)
+        """)
+    int tryAcquire(@Param("name") String name,
+                   @Param("owner") String owner,
+                   @Param("now") Instant now,
+                   @Param("until") Instant until);
+
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.leaseUntil = :now WHERE l.name = :name AND l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") Instant now);
+}
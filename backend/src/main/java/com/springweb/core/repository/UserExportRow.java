@@ -0,0 +1,11 @@
+package com.springweb.core.repository;
+
+/**
+ * Một dòng xuất danh sách người dùng; id dùng làm vị trí keyset khi đọc theo từng đợt
+ */
+public record UserExportRow(
+        Integer id,
+        String fullName,
+        String email,
+        String phoneNumber
+) {}
@@ -1,7 +1,11 @@
 package com.springweb.core.repository;
 
 import com.springweb.core.entity.User;
+import com.springweb.core.service.SecurityState;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,5 +15,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> getByEmail(String email);
 
-    List<User> getAllByRole_Name(String roleName);
+    long countByRole_Name(String roleName);
+
+    // Xuất người dùng theo vai trò, từng đợt sau id cho trước
+    @Query("""
+        SELECT new com.springweb.core.repository.UserExportRow(u.id, u.fullName, u.email, u.phoneNumber)
+        FROM User u
+        WHERE u.role.name = :roleName AND u.id > :afterId
+        ORDER BY u.id
+        """)
+    List<UserExportRow> findExportRows(@Param("roleName") String roleName, @Param("afterId") Integer afterId, Limit limit);
+
+    @Query("SELECT new com.springweb.core.service.SecurityState(u.securityVersion, u.status) FROM User u WHERE u.email = :email")
+    Optional<SecurityState> findSecurityStateByEmail(@Param("email") String email);
 }
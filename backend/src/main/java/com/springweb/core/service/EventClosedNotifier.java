@@ -0,0 +1,76 @@
+package com.springweb.core.service;
+
+import com.springweb.core.entity.CancelReason;
+import com.springweb.core.entity.EventStatus;
+import com.springweb.core.entity.RegistrationStatus;
+import com.springweb.core.event.EventClosedEvent;
+import com.springweb.core.repository.EventRegistrationRepository;
+import com.springweb.core.repository.RegistrationRecipient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Báo cho từng tình nguyện viên khi sự kiện được đóng. Chạy bất đồng bộ sau commit để request đóng sự kiện
+ * trả về ngay; người nhận được đọc theo từng đợt (keyset theo id đơn) nên không nạp cả danh sách vào bộ nhớ.
+ */
+@Service
+public class EventClosedNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(EventClosedNotifier.class);
+
+    private final EventRegistrationRepository regRepo;
+    private final NotificationService notificationService;
+    private final int chunkSize;
+
+    public EventClosedNotifier(EventRegistrationRepository regRepo,
+                               NotificationService notificationService,
+                               @Value("${app.notifications.fanout-chunk-size:500}") int chunkSize) {
+        this.regRepo = regRepo;
+        this.notificationService = notificationService;
+        this.chunkSize = chunkSize;
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventClosed(EventClosedEvent closed) {
+        if (closed.managerEmail() != null) {
+            notificationService.sendBatch(List.of(closed.managerEmail()), switch (closed.status()) {
+                case COMPLETED -> "Sự kiện \"" + closed.title() + "\" đã kết thúc và được tự động đánh dấu hoàn thành";
+                case EXPIRED -> "Sự kiện \"" + closed.title() + "\" đã hết hạn do chưa được duyệt trước giờ bắt đầu";
+                default -> "Sự kiện \"" + closed.title() + "\" đã được đóng";
+            });
+        }
+        if (closed.status() == EventStatus.EXPIRED) {
+            // sự kiện chưa duyệt thì chưa có ai đăng ký
+            return;
+        }
+
+        boolean completed = closed.status() == EventStatus.COMPLETED;
+        RegistrationStatus status = completed ? RegistrationStatus.COMPLETED : RegistrationStatus.CANCELLED;
+        String message = completed
+                ? "Sự kiện \"" + closed.title() + "\" đã hoàn thành, cảm ơn bạn đã tham gia!"
+                : "Sự kiện \"" + closed.title() + "\" đã bị hủy, đơn đăng ký của bạn cũng được hủy";
+
+        int afterId = 0;
+        int sent = 0;
+        while (true) {
+            // chỉ các đơn bị hủy theo sự kiện, không gồm người đã tự hủy trước đó
+            List<RegistrationRecipient> chunk = regRepo.findRecipients(closed.eventId(), status,
+                    completed ? null : CancelReason.EVENT_CANCELLED, afterId, Limit.of(chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            notificationService.sendBatch(chunk.stream().map(RegistrationRecipient::email).toList(), message);
+            sent += chunk.size();
+            afterId = chunk.get(chunk.size() - 1).registrationId();
+        }
+        log.debug("Notified {} volunteer(s) that event {} is {}", sent, closed.eventId(), closed.status());
+    }
+}
@@ -0,0 +1,201 @@
+package com.springweb.core.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.springweb.core.entity.RegistrationStatus;
+import com.springweb.core.exception.BusinessException;
+import com.springweb.core.repository.EventExportRow;
+import com.springweb.core.repository.EventRegistrationRepository;
+import com.springweb.core.repository.EventRepository;
+import com.springweb.core.repository.RegistrationRosterRow;
+import com.springweb.core.util.CsvUtils;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Xuất toàn bộ sự kiện (CSV hoặc NDJSON) và danh sách tình nguyện viên của sự kiện (CSV)
+ * bằng cách ghi thẳng từng dòng đọc từ con trỏ DB ra response,
+ * nên bộ nhớ dùng không phụ thuộc số sự kiện. Có thể nén gzip trong lúc ghi.
+ */
+@Service
+public class EventExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String[] CSV_HEADER = {"ID", "Tiêu đề", "Danh mục", "Thành phố", "Quận/Huyện", "Phường/Xã",
+            "Trạng thái", "Bắt đầu", "Kết thúc", "Sức chứa", "Số người đăng ký"};
+    // cột cuối để trống cho bàn check-in ghi chú / ký tên
+    private static final String[] ROSTER_CSV_HEADER = {"Mã đăng ký", "Họ và tên", "Email", "Số điện thoại",
+            "Trạng thái", "Ngày đăng ký", "Check-in"};
+
+    public enum Format {
+        CSV("csv", new MediaType("text", "csv", StandardCharsets.UTF_8)),
+        NDJSON("ndjson", MediaType.APPLICATION_NDJSON);
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        public static Format parse(String value) {
+            return switch (value.toLowerCase()) {
+                case "csv" -> CSV;
+                case "ndjson", "json" -> NDJSON;
+                default -> throw new BusinessException("INVALID_FORMAT", "Định dạng xuất không hợp lệ (csv, ndjson)");
+            };
+        }
+    }
+
+    private final EventRepository eventRepo;
+    private final EventRegistrationRepository regRepo;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTx;
+
+    public EventExportService(EventRepository eventRepo,
+                              EventRegistrationRepository regRepo,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager) {
+        this.eventRepo = eventRepo;
+        this.regRepo = regRepo;
+        this.objectMapper = objectMapper;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /**
+     * Ghi dữ liệu xuất vào out. Được gọi từ luồng của StreamingResponseBody nên tự mở giao dịch chỉ đọc
+     * để con trỏ còn sống trong suốt quá trình ghi.
+     */
+    public void export(Format format, boolean gzip, OutputStream out) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<EventExportRow> rows = eventRepo.streamForExport()) {
+                    if (format == Format.CSV) {
+                        writeCsv(rows.iterator(), target);
+                    } else {
+                        writeNdjson(rows.iterator(), target);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (target instanceof GZIPOutputStream gzipOut) {
+            gzipOut.finish();
+        }
+        out.flush();
+    }
+
+    /** Danh sách tình nguyện viên của một sự kiện cho bàn check-in, CSV theo tên; quyền đã được kiểm tra trước */
+    public void exportRoster(Integer eventId, RegistrationStatus statusFilter, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try {
+            readOnlyTx.executeWithoutResult(tx -> {
+                try (Stream<RegistrationRosterRow> rows = regRepo.streamRoster(eventId, statusFilter)) {
+                    writer.write(CsvUtils.UTF8_BOM);
+                    CsvUtils.writeLine(writer, ROSTER_CSV_HEADER);
+                    Iterator<RegistrationRosterRow> it = rows.iterator();
+                    while (it.hasNext()) {
+                        RegistrationRosterRow row = it.next();
+                        CsvUtils.writeLine(writer,
+                                String.valueOf(row.registrationId()),
+                                row.fullName(),
+                                row.email(),
+                                row.phoneNumber(),
+                                row.status().name(),
+                                Objects.toString(row.registrationDate(), null),
+                                null);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static void writeCsv(Iterator<EventExportRow> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(CsvUtils.UTF8_BOM);
+        CsvUtils.writeLine(writer, CSV_HEADER);
+        while (rows.hasNext()) {
+            EventExportRow row = rows.next();
+            CsvUtils.writeLine(writer,
+                    String.valueOf(row.id()),
+                    row.title(),
+                    row.categoryName(),
+                    row.city(),
+                    row.district(),
+                    row.ward(),
+                    Objects.toString(row.status(), null),
+                    Objects.toString(row.startAt(), null),
+                    Objects.toString(row.endAt(), null),
+                    Objects.toString(row.capacity(), null),
+                    String.valueOf(row.registrationCount()));
+        }
+        writer.flush();
+    }
+
+    private void writeNdjson(Iterator<EventExportRow> rows, OutputStream out) throws IOException {
+        try (SequenceWriter writer = objectMapper.writerFor(EventExportRow.class)
+                .withRootValueSeparator("\n")
+                .writeValues(new NonClosingOutputStream(out))) {
+            boolean any = false;
+            while (rows.hasNext()) {
+                writer.write(rows.next());
+                any = true;
+            }
+            writer.flush();
+            if (any) {
+                out.write('\n');
+            }
+        }
+    }
+
+    /** Đóng SequenceWriter không được đóng luôn response (gzip còn phải ghi phần cuối) */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.springweb.core.service;
+
+import com.springweb.core.dto.EventFacetsDto;
+import com.springweb.core.entity.EventStatus;
+import com.springweb.core.event.EventChangedEvent;
+import com.springweb.core.event.EventSnapshot;
+import com.springweb.core.exception.BusinessException;
+import com.springweb.core.repository.EventFacetCount;
+import com.springweb.core.repository.EventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Số đếm facet (trạng thái × danh mục × tỉnh/thành → quận/huyện → phường/xã) giữ trong bộ nhớ,
+ * để dropdown bộ lọc không phải GROUP BY bảng events mỗi lần tải trang.
+ * Cập nhật dần theo EventChangedEvent sau commit; định kỳ đếm lại từ DB và thay cả cây
+ * để sửa sai lệch (vd. thay đổi từ node khác). Thay đổi đến trong lúc đang đếm lại được gom lại
+ * và áp lên cây mới trước khi hoán đổi, để không bị mất.
+ */
+@Service
+public class EventFacetService {
+
+    private static final Logger log = LoggerFactory.getLogger(EventFacetService.class);
+
+    private final EventRepository eventRepo;
+
+    private volatile FacetTree tree = new FacetTree();
+    // Thay đổi đến trong lúc đang đối soát, được áp lại lên cây mới trước khi hoán đổi
+    private Queue<EventChangedEvent> pendingDuringReconcile;
+    // Giữ "ghi nhận thay đổi" và "áp hàng chờ + hoán đổi cây" không xen nhau
+    private final Object swapLock = new Object();
+
+    private final Timer reconcileTimer;
+    private final Counter driftCounter;
+
+    public EventFacetService(EventRepository eventRepo, MeterRegistry meterRegistry) {
+        this.eventRepo = eventRepo;
+        this.reconcileTimer = Timer.builder("event.facets.reconcile")
+                .description("Thời gian đếm lại facet sự kiện từ DB")
+                .register(meterRegistry);
+        this.driftCounter = Counter.builder("event.facets.drift")
+                .description("Tổng chênh lệch số đếm từng nút facet giữa bộ nhớ và DB phát hiện khi đối soát")
+                .register(meterRegistry);
+    }
+
+    public EventFacetsDto getFacets(String status, String category, String city, String district, String ward) {
+        EventStatus statusFilter = parseStatusFilter(status);
+        FacetTree current = tree;
+        Integer categoryId = null;
+        if (category != null) {
+            categoryId = current.categoryIdOf(category);
+            if (categoryId == null) {
+                // danh mục chưa có sự kiện nào: mọi số đếm kèm danh mục này đều bằng 0
+                categoryId = -1;
+            }
+        }
+
+        long total = current.count(statusFilter, categoryId, city, district, ward);
+
+        Map<String, Long> statuses = new TreeMap<>();
+        for (EventStatus s : EventStatus.values()) {
+            putIfPositive(statuses, s.name(), current.count(s, categoryId, city, district, ward));
+        }
+
+        Map<String, Long> categories = new TreeMap<>();
+        for (Map.Entry<Integer, String> c : current.categoryNames.entrySet()) {
+            putIfPositive(categories, c.getValue(), current.count(statusFilter, c.getKey(), city, district, ward));
+        }
+
+        FacetNode root = current.root(statusFilter, categoryId);
+        FacetNode cityNode = root != null && city != null ? root.children.get(city) : null;
+        FacetNode districtNode = cityNode != null && district != null ? cityNode.children.get(district) : null;
+
+        return new EventFacetsDto(
+                total,
+                statuses,
+                categories,
+                root != null ? root.childCounts() : Map.of(),
+                city != null ? (cityNode != null ? cityNode.childCounts() : Map.of()) : null,
+                district != null ? (districtNode != null ? districtNode.childCounts() : Map.of()) : null
+        );
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChanged(EventChangedEvent change) {
+        synchronized (swapLock) {
+            if (pendingDuringReconcile != null) {
+                pendingDuringReconcile.add(change);
+            }
+            apply(tree, change);
+        }
+    }
+
+    private static void apply(FacetTree target, EventChangedEvent change) {
+        if (change.before() != null) {
+            target.add(change.before(), -1);
+        }
+        if (change.after() != null) {
+            target.add(change.after(), 1);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void loadOnStartup() {
+        reconcile();
+    }
+
+    /**
+     * Đếm lại toàn bộ từ DB, áp các thay đổi đến trong lúc đếm rồi thay cây mới; reader đang đọc cây cũ
+     * không bị ảnh hưởng. Hàng chờ được mở ngay trước câu truy vấn nên chỉ thay đổi commit sát lúc truy vấn
+     * bắt đầu mới có thể bị tính hai lần, và lần đối soát sau sẽ sửa.
+     */
+    @Scheduled(fixedDelayString = "${app.event-facets.reconcile-interval-ms:300000}",
+            initialDelayString = "${app.event-facets.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        reconcileTimer.record(() -> {
+            FacetTree rebuilt = new FacetTree();
+            synchronized (swapLock) {
+                pendingDuringReconcile = new ArrayDeque<>();
+            }
+            try {
+                for (EventFacetCount row : eventRepo.countFacets()) {
+                    rebuilt.add(row, row.count());
+                }
+            } catch (RuntimeException e) {
+                synchronized (swapLock) {
+                    pendingDuringReconcile = null;
+                }
+                throw e;
+            }
+
+            synchronized (swapLock) {
+                pendingDuringReconcile.forEach(change -> apply(rebuilt, change));
+                pendingDuringReconcile = null;
+
+                long drift = FacetTree.drift(rebuilt, tree);
+                if (drift > 0) {
+                    driftCounter.increment(drift);
+                    log.debug("Event facet counts drifted by {} across facet nodes since last reconcile", drift);
+                }
+                tree = rebuilt;
+            }
+        });
+    }
+
+    private static void putIfPositive(Map<String, Long> target, String key, long count) {
+        if (count > 0) {
+            target.put(key, count);
+        }
+    }
+
+    private static EventStatus parseStatusFilter(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        try {
+            return EventStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("INVALID_STATUS", "Trạng thái sự kiện không hợp lệ");
+        }
+    }
+
+    /** Khóa gốc theo (trạng thái, danh mục); null nghĩa là "tất cả" */
+    private record Dimension(EventStatus status, Integer categoryId) {}
+
+    private static final class FacetTree {
+        final ConcurrentHashMap<Dimension, FacetNode> roots = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<Integer, String> categoryNames = new ConcurrentHashMap<>();
+
+        void add(EventSnapshot event, long delta) {
+            add(event.status(), event.categoryId(), event.categoryName(), event.city(), event.district(), event.ward(), delta);
+        }
+
+        void add(EventFacetCount row, long delta) {
+            add(row.status(), row.categoryId(), row.categoryName(), row.city(), row.district(), row.ward(), delta);
+        }
+
+        /**
+         * Mỗi sự kiện được cộng vào 4 cây: (status, category), (status, *), (*, category), (*, *)
+         * để mọi tổ hợp bộ lọc chỉ cần đi theo một đường từ gốc
+         */
+        private void add(EventStatus status, Integer categoryId, String categoryName,
+                         String city, String district, String ward, long delta) {
+            if (categoryId != null && categoryName != null) {
+                categoryNames.put(categoryId, categoryName);
+            }
+            addPath(new Dimension(null, null), city, district, ward, delta);
+            if (status != null) {
+                addPath(new Dimension(status, null), city, district, ward, delta);
+            }
+            if (categoryId != null) {
+                addPath(new Dimension(null, categoryId), city, district, ward, delta);
+            }
+            if (status != null && categoryId != null) {
+                addPath(new Dimension(status, categoryId), city, district, ward, delta);
+            }
+        }
+
+        private void addPath(Dimension dimension, String city, String district, String ward, long delta) {
+            FacetNode node = roots.computeIfAbsent(dimension, d -> new FacetNode());
+            node.count.add(delta);
+            // cấp nào trống thì sự kiện chỉ được đếm tới cấp cha
+            for (String level : new String[]{city, district, ward}) {
+                if (level == null) {
+                    return;
+                }
+                node = node.children.computeIfAbsent(level, l -> new FacetNode());
+                node.count.add(delta);
+            }
+        }
+
+        FacetNode root(EventStatus status, Integer categoryId) {
+            return roots.get(new Dimension(status, categoryId));
+        }
+
+        long count(EventStatus status, Integer categoryId, String city, String district, String ward) {
+            FacetNode node = root(status, categoryId);
+            for (String level : new String[]{city, district, ward}) {
+                if (node == null || level == null) {
+                    break;
+                }
+                node = node.children.get(level);
+            }
+            return node != null ? node.count.sum() : 0;
+        }
+
+        /** Tổng |chênh lệch| số đếm trên mọi nút của hai cây (nút chỉ có ở một cây tính là 0 ở cây kia) */
+        static long drift(FacetTree a, FacetTree b) {
+            Set<Dimension> dimensions = new HashSet<>(a.roots.keySet());
+            dimensions.addAll(b.roots.keySet());
+            long drift = 0;
+            for (Dimension dimension : dimensions) {
+                drift += FacetNode.drift(a.roots.get(dimension), b.roots.get(dimension));
+            }
+            return drift;
+        }
+
+        Integer categoryIdOf(String categoryName) {
+            for (Map.Entry<Integer, String> entry : categoryNames.entrySet()) {
+                if (entry.getValue().equals(categoryName)) {
+                    return entry.getKey();
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class FacetNode {
+        final LongAdder count = new LongAdder();
+        final ConcurrentHashMap<String, FacetNode> children = new ConcurrentHashMap<>();
+
+        static long drift(FacetNode a, FacetNode b) {
+            long drift = Math.abs((a != null ? a.count.sum() : 0) - (b != null ? b.count.sum() : 0));
+            Set<String> names = new HashSet<>();
+            if (a != null) {
+                names.addAll(a.children.keySet());
+            }
+            if (b != null) {
+                names.addAll(b.children.keySet());
+            }
+            for (String name : names) {
+                drift += drift(a != null ? a.children.get(name) : null, b != null ? b.children.get(name) : null);
+            }
+            return drift;
+        }
+
+        Map<String, Long> childCounts() {
+            Map<String, Long> counts = new TreeMap<>();
+            children.forEach((name, child) -> putIfPositive(counts, name, child.count.sum()));
+            return Collections.unmodifiableMap(counts);
+        }
+    }
+}
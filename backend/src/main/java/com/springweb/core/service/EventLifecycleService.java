@@ -0,0 +1,140 @@
+package com.springweb.core.service;
+
+import com.springweb.core.entity.Event;
+import com.springweb.core.entity.EventStatus;
+import com.springweb.core.entity.RegistrationStatus;
+import com.springweb.core.event.EventChangedEvent;
+import com.springweb.core.event.EventClosedEvent;
+import com.springweb.core.event.EventSnapshot;
+import com.springweb.core.repository.EventRegistrationRepository;
+import com.springweb.core.repository.EventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Tự động chuyển trạng thái sự kiện theo thời gian: APPROVED đã kết thúc → COMPLETED (kèm các đơn APPROVED),
+ * PENDING đã tới giờ bắt đầu mà chưa duyệt → EXPIRED.
+ * Mỗi lô là một giao dịch: nhận sự kiện đến hạn bằng SELECT ... FOR UPDATE SKIP LOCKED, đổi trạng thái bằng câu UPDATE hàng loạt,
+ * rồi phát EventChangedEvent / EventClosedEvent (thông báo gửi bất đồng bộ sau commit).
+ * Chạy được trên nhiều node: chỉ node giữ khóa thuê "event-lifecycle" mới xử lý.
+ */
+@Service
+public class EventLifecycleService {
+
+    private static final Logger log = LoggerFactory.getLogger(EventLifecycleService.class);
+
+    private static final String LEASE = "event-lifecycle";
+
+    private final EventRepository eventRepo;
+    private final EventRegistrationRepository regRepo;
+    private final SchedulerLeaseService leaseService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate tx;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration leaseTtl;
+
+    private final Counter completedCounter;
+    private final Counter expiredCounter;
+
+    public EventLifecycleService(EventRepository eventRepo,
+                                 EventRegistrationRepository regRepo,
+                                 SchedulerLeaseService leaseService,
+                                 ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.event-lifecycle.batch-size:100}") int batchSize,
+                                 @Value("${app.event-lifecycle.max-batches-per-run:50}") int maxBatchesPerRun,
+                                 @Value("${app.event-lifecycle.lease-ttl:PT5M}") Duration leaseTtl) {
+        this.eventRepo = eventRepo;
+        this.regRepo = regRepo;
+        this.leaseService = leaseService;
+        this.eventPublisher = eventPublisher;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.leaseTtl = leaseTtl;
+        this.completedCounter = transitionCounter(meterRegistry, EventStatus.COMPLETED);
+        this.expiredCounter = transitionCounter(meterRegistry, EventStatus.EXPIRED);
+    }
+
+    private static Counter transitionCounter(MeterRegistry meterRegistry, EventStatus to) {
+        return Counter.builder("event.lifecycle.transitions")
+                .description("Số sự kiện được bộ lập lịch tự động chuyển trạng thái")
+                .tag("to", to.name().toLowerCase())
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.event-lifecycle.interval-ms:60000}",
+            initialDelayString = "${app.event-lifecycle.interval-ms:60000}")
+    public void run() {
+        if (!leaseService.tryAcquire(LEASE, leaseTtl)) {
+            return;
+        }
+        try {
+            Instant now = Instant.now();
+            int completed = drain(EventStatus.APPROVED, EventStatus.COMPLETED, now);
+            int expired = drain(EventStatus.PENDING, EventStatus.EXPIRED, now);
+            if (completed + expired > 0) {
+                log.info("Event lifecycle: {} event(s) completed, {} expired", completed, expired);
+            }
+        } finally {
+            leaseService.release(LEASE);
+        }
+    }
+
+    /** Xử lý từng lô tới khi hết việc, chạm giới hạn lô mỗi lần chạy, hoặc mất khóa (gia hạn sau mỗi lô) */
+    private int drain(EventStatus from, EventStatus to, Instant now) {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer processed = tx.execute(status -> transitionBatch(from, to, now));
+            total += processed != null ? processed : 0;
+            if (processed == null || processed < batchSize || !leaseService.tryAcquire(LEASE, leaseTtl)) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int transitionBatch(EventStatus from, EventStatus to, Instant now) {
+        List<Event> due = from == EventStatus.APPROVED
+                ? eventRepo.claimEndedApproved(now, Limit.of(batchSize))
+                : eventRepo.claimStartedPending(now, Limit.of(batchSize));
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        List<Integer> ids = due.stream().map(Event::getId).toList();
+        // nạp danh mục và người tạo cho cả lô trong một truy vấn (không khóa thêm bảng khác)
+        eventRepo.findWithDetailsByIdIn(ids);
+        List<EventSnapshot> before = due.stream().map(EventSnapshot::of).toList();
+
+        // các dòng đang bị khóa bởi giao dịch này nên UPDATE có điều kiện chắc chắn khớp đủ
+        eventRepo.transitionStatus(ids, from, to, now);
+        if (to == EventStatus.COMPLETED) {
+            regRepo.updateStatusByEvents(ids, List.of(RegistrationStatus.APPROVED), RegistrationStatus.COMPLETED);
+        }
+
+        for (int i = 0; i < due.size(); i++) {
+            Event event = due.get(i);
+            eventPublisher.publishEvent(new EventChangedEvent(before.get(i), before.get(i).withStatus(to)));
+            eventPublisher.publishEvent(new EventClosedEvent(event.getId(), event.getTitle(), to, now,
+                    event.getCreatedBy() != null ? event.getCreatedBy().getEmail() : null));
+        }
+        (to == EventStatus.COMPLETED ? completedCounter : expiredCounter).increment(due.size());
+        return due.size();
+    }
+}
@@ -0,0 +1,225 @@
+package com.springweb.core.service;
+
+import com.springweb.core.entity.Event;
+import com.springweb.core.entity.EventStatus;
+import com.springweb.core.entity.RegistrationStatus;
+import com.springweb.core.event.EventChangedEvent;
+import com.springweb.core.event.EventSnapshot;
+import com.springweb.core.repository.EventRegistrationRepository;
+import com.springweb.core.repository.EventReminderSentRepository;
+import com.springweb.core.repository.EventRepository;
+import com.springweb.core.repository.EventStartTime;
+import com.springweb.core.repository.RegistrationRecipient;
+import com.springweb.core.util.HierarchicalTimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Nhắc tình nguyện viên đã được duyệt 24h và 1h trước giờ bắt đầu sự kiện.
+ * Hẹn giờ nằm trong bánh xe thời gian phân cấp trong bộ nhớ (không quét DB mỗi phút): nạp lúc khởi động,
+ * cập nhật theo EventChangedEvent (duyệt, sửa giờ, đóng, xóa sự kiện) và nạp lại định kỳ để bắt thay đổi từ node khác.
+ * Khi tới hạn, lần nhắc được "giành" bằng unique key trong event_reminders_sent nên nhiều node chỉ gửi một lần,
+ * rồi gửi theo từng đợt người nhận qua NotificationService.
+ */
+@Service
+public class EventReminderScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(EventReminderScheduler.class);
+
+    enum ReminderType {
+        H24(Duration.ofHours(24), "24 giờ"),
+        H1(Duration.ofHours(1), "1 giờ");
+
+        final Duration before;
+        final String label;
+
+        ReminderType(Duration before, String label) {
+            this.before = before;
+            this.label = label;
+        }
+    }
+
+    record Reminder(Integer eventId, Instant startAt, ReminderType type) {}
+
+    private final EventRepository eventRepo;
+    private final EventRegistrationRepository regRepo;
+    private final EventReminderSentRepository reminderRepo;
+    private final NotificationService notificationService;
+    private final int chunkSize;
+
+    private final HierarchicalTimingWheel<Reminder> wheel;
+    // id sự kiện → các hẹn giờ đang chờ (để hủy khi sự kiện đổi giờ / bị đóng)
+    private final ConcurrentHashMap<Integer, PendingReminders> scheduled = new ConcurrentHashMap<>();
+
+    private final Counter sentCounter;
+
+    // đếm số thay đổi nhận qua listener, và thay đổi gần nhất của từng sự kiện (được bảo vệ bởi khóa của this)
+    private long generation;
+    private final Map<Integer, Long> changedAt = new HashMap<>();
+
+    private record PendingReminders(Instant startAt, List<HierarchicalTimingWheel.Timeout<Reminder>> timeouts) {}
+
+    public EventReminderScheduler(EventRepository eventRepo,
+                                  EventRegistrationRepository regRepo,
+                                  EventReminderSentRepository reminderRepo,
+                                  NotificationService notificationService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.event-reminders.tick-ms:1000}") long tickMillis,
+                                  @Value("${app.notifications.fanout-chunk-size:500}") int chunkSize) {
+        this.eventRepo = eventRepo;
+        this.regRepo = regRepo;
+        this.reminderRepo = reminderRepo;
+        this.notificationService = notificationService;
+        this.chunkSize = chunkSize;
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, System.currentTimeMillis());
+        Gauge.builder("event.reminders.pending", wheel, HierarchicalTimingWheel::size)
+                .description("Số hẹn giờ nhắc lịch đang chờ trong bộ nhớ")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("event.reminders.sent")
+                .description("Số lần nhắc lịch sự kiện đã gửi (mỗi lần gồm mọi tình nguyện viên đã duyệt)")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEventChanged(EventChangedEvent change) {
+        changedAt.put(change.eventId(), ++generation);
+        EventSnapshot event = change.after();
+        if (event != null && event.status() == EventStatus.APPROVED && event.startAt() != null) {
+            schedule(event.id(), event.startAt());
+        } else {
+            unschedule(change.eventId());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void loadOnStartup() {
+        reload();
+    }
+
+    /** Nạp lại từ DB: thêm sự kiện mới/đổi giờ, bỏ sự kiện không còn sắp diễn ra */
+    @Scheduled(fixedDelayString = "${app.event-reminders.reload-interval-ms:3600000}",
+            initialDelayString = "${app.event-reminders.reload-interval-ms:3600000}")
+    public void reload() {
+        // Truy vấn ngoài khóa để không chặn listener / tick; thay đổi đến trong lúc truy vấn mới hơn ảnh chụp DB
+        // nên được giữ nguyên (nhận ra qua generation)
+        long snapshotGeneration;
+        synchronized (this) {
+            snapshotGeneration = generation;
+        }
+        List<EventStartTime> upcoming = eventRepo.findUpcomingApprovedStartTimes(Instant.now());
+
+        synchronized (this) {
+            Set<Integer> ids = new HashSet<>(upcoming.size());
+            for (EventStartTime event : upcoming) {
+                ids.add(event.eventId());
+                if (!changedSince(event.eventId(), snapshotGeneration)) {
+                    schedule(event.eventId(), event.startAt());
+                }
+            }
+            for (Integer eventId : List.copyOf(scheduled.keySet())) {
+                if (!ids.contains(eventId) && !changedSince(eventId, snapshotGeneration)) {
+                    unschedule(eventId);
+                }
+            }
+            // ảnh chụp DB đã bao gồm các thay đổi cũ hơn
+            changedAt.values().removeIf(g -> g <= snapshotGeneration);
+        }
+        log.info("Scheduled reminders for {} upcoming event(s)", upcoming.size());
+    }
+
+    private boolean changedSince(Integer eventId, long snapshotGeneration) {
+        Long changed = changedAt.get(eventId);
+        return changed != null && changed > snapshotGeneration;
+    }
+
+    /** Quay bánh xe; việc gửi chạy ở virtual thread để không giữ luồng lập lịch dùng chung */
+    @Scheduled(fixedDelayString = "${app.event-reminders.tick-ms:1000}")
+    public void tick() {
+        List<Reminder> due = new ArrayList<>();
+        wheel.advance(System.currentTimeMillis(), due::add);
+        if (!due.isEmpty()) {
+            Thread.ofVirtual().name("event-reminders").start(() -> due.forEach(this::send));
+        }
+    }
+
+    private synchronized void schedule(Integer eventId, Instant startAt) {
+        PendingReminders current = scheduled.get(eventId);
+        if (current != null && current.startAt().equals(startAt)) {
+            return;
+        }
+        unschedule(eventId);
+
+        long now = System.currentTimeMillis();
+        List<HierarchicalTimingWheel.Timeout<Reminder>> timeouts = new ArrayList<>(ReminderType.values().length);
+        for (ReminderType type : ReminderType.values()) {
+            long fireAt = startAt.minus(type.before).toEpochMilli();
+            // đã lỡ mốc này (vd. duyệt sát giờ) thì bỏ qua, không nhắc muộn
+            if (fireAt > now) {
+                timeouts.add(wheel.schedule(new Reminder(eventId, startAt, type), fireAt));
+            }
+        }
+        if (!timeouts.isEmpty()) {
+            scheduled.put(eventId, new PendingReminders(startAt, timeouts));
+        }
+    }
+
+    private synchronized void unschedule(Integer eventId) {
+        PendingReminders previous = scheduled.remove(eventId);
+        if (previous != null) {
+            previous.timeouts().forEach(wheel::cancel);
+        }
+    }
+
+    private void send(Reminder reminder) {
+        try {
+            // mốc 1h là mốc cuối: bỏ sự kiện khỏi bảng hẹn giờ
+            if (reminder.type() == ReminderType.H1) {
+                scheduled.computeIfPresent(reminder.eventId(), (id, s) -> s.startAt().equals(reminder.startAt()) ? null : s);
+            }
+            // kiểm tra lại với DB: node này có thể chưa thấy thay đổi từ node khác
+            Event event = eventRepo.findById(reminder.eventId()).orElse(null);
+            if (event == null || event.getStatus() != EventStatus.APPROVED
+                    || !Objects.equals(event.getStartAt(), reminder.startAt())) {
+                return;
+            }
+            if (reminderRepo.claim(reminder.eventId(), reminder.type().name(), reminder.startAt(), Instant.now()) == 0) {
+                return;
+            }
+
+            String message = "Sự kiện \"" + event.getTitle() + "\" sẽ bắt đầu sau " + reminder.type().label;
+            int afterId = 0;
+            List<RegistrationRecipient> chunk;
+            do {
+                chunk = regRepo.findRecipients(reminder.eventId(), RegistrationStatus.APPROVED, null, afterId, Limit.of(chunkSize));
+                if (!chunk.isEmpty()) {
+                    notificationService.sendBatch(chunk.stream().map(RegistrationRecipient::email).toList(), message);
+                    afterId = chunk.get(chunk.size() - 1).registrationId();
+                }
+            } while (chunk.size() == chunkSize);
+            sentCounter.increment();
+        } catch (RuntimeException e) {
+            log.warn("Could not send {} reminder for event {}", reminder.type(), reminder.eventId(), e);
+        }
+    }
+}
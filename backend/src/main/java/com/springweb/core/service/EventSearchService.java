@@ -0,0 +1,136 @@
+package com.springweb.core.service;
+
+import com.springweb.core.entity.Event;
+import com.springweb.core.entity.EventStatus;
+import com.springweb.core.event.EventChangedEvent;
+import com.springweb.core.event.EventSnapshot;
+import com.springweb.core.repository.EventRepository;
+import com.springweb.core.repository.EventSpecifications;
+import com.springweb.core.util.EventSearchIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Tìm kiếm toàn văn sự kiện bằng inverted index trong bộ nhớ.
+ * Index được dựng lại từ DB khi ứng dụng khởi động và cập nhật dần theo EventChangedEvent sau khi commit.
+ * Chỉ sự kiện đã duyệt được index; sự kiện rời trạng thái APPROVED bị gỡ khỏi index.
+ */
+@Service
+public class EventSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(EventSearchService.class);
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float LOCATION_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    private final EventRepository eventRepo;
+    private final int rebuildBatchSize;
+
+    private volatile EventSearchIndex index = new EventSearchIndex();
+    // Thay đổi xảy ra trong lúc đang dựng lại index, được áp lại lên index mới sau khi hoán đổi
+    private volatile Queue<EventChangedEvent> pendingDuringRebuild;
+
+    private final Timer queryTimer;
+    private final Timer indexTimer;
+
+    public EventSearchService(EventRepository eventRepo,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.event-search.rebuild-batch-size:1000}") int rebuildBatchSize) {
+        this.eventRepo = eventRepo;
+        this.rebuildBatchSize = rebuildBatchSize;
+
+        this.queryTimer = Timer.builder("event.search.query")
+                .description("Thời gian tra cứu index tìm kiếm sự kiện")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.indexTimer = Timer.builder("event.search.index")
+                .description("Thời gian cập nhật một sự kiện vào index tìm kiếm")
+                .register(meterRegistry);
+        Gauge.builder("event.search.documents", this, s -> s.index.size())
+                .description("Số sự kiện đang có trong index tìm kiếm")
+                .register(meterRegistry);
+    }
+
+    /** Trả về id sự kiện khớp với truy vấn, liên quan nhất trước */
+    public List<Integer> search(String query, int limit) {
+        return queryTimer.record(() -> index.search(query, limit));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void rebuildOnStartup() {
+        // Dựng index ở nền để không chặn việc nhận request; trong lúc đó kết quả tìm kiếm có thể chưa đầy đủ
+        Thread.ofVirtual().name("event-search-rebuild").start(this::rebuild);
+    }
+
+    public void rebuild() {
+        long started = System.nanoTime();
+        EventSearchIndex rebuilt = new EventSearchIndex();
+        pendingDuringRebuild = new ConcurrentLinkedQueue<>();
+        try {
+            int lastId = 0;
+            List<Event> batch;
+            do {
+                batch = eventRepo.findBy(EventSpecifications.idGreaterThan(lastId)
+                        .and(EventSpecifications.filter(null, null, null, null, EventStatus.APPROVED)), query -> query
+                        .project("category")
+                        .sortBy(Sort.by("id"))
+                        .limit(rebuildBatchSize)
+                        .all());
+                for (Event event : batch) {
+                    apply(rebuilt, EventSnapshot.of(event));
+                    lastId = event.getId();
+                }
+            } while (batch.size() == rebuildBatchSize);
+
+            index = rebuilt;
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild event search index", e);
+        } finally {
+            Queue<EventChangedEvent> pending = pendingDuringRebuild;
+            pendingDuringRebuild = null;
+            pending.forEach(this::onEventChanged);
+        }
+        log.info("Indexed {} event(s) for search in {} ms", index.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChanged(EventChangedEvent change) {
+        Queue<EventChangedEvent> pending = pendingDuringRebuild;
+        if (pending != null) {
+            pending.add(change);
+        }
+        indexTimer.record(() -> {
+            if (change.isDeleted() || change.after().status() != EventStatus.APPROVED) {
+                index.remove(change.eventId());
+            } else {
+                apply(index, change.after());
+            }
+        });
+    }
+
+    private static void apply(EventSearchIndex target, EventSnapshot event) {
+        target.index(event.id(), List.of(
+                new EventSearchIndex.Field(event.title(), TITLE_WEIGHT),
+                new EventSearchIndex.Field(event.categoryName(), CATEGORY_WEIGHT),
+                new EventSearchIndex.Field(event.city(), LOCATION_WEIGHT),
+                new EventSearchIndex.Field(event.district(), LOCATION_WEIGHT),
+                new EventSearchIndex.Field(event.ward(), LOCATION_WEIGHT),
+                new EventSearchIndex.Field(event.description(), DESCRIPTION_WEIGHT)
+        ));
+    }
+}
@@ -1,20 +1,46 @@
 package com.springweb.core.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.springweb.core.dto.*;
 import com.springweb.core.entity.*;
+import com.springweb.core.event.EventChangedEvent;
+import com.springweb.core.event.EventClosedEvent;
+import com.springweb.core.event.EventSnapshot;
+import com.springweb.core.event.RegistrationChangedEvent;
 import com.springweb.core.exception.BusinessException;
 import com.springweb.core.repository.*;
+import com.springweb.core.util.Versioned;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class EventService {
@@ -25,44 +51,191 @@ public class EventService {
     private final EventRegistrationRepository regRepo;
     private final PostRepository postRepo;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventSearchService searchService;
+    private final HotEventsService hotEventsService;
+    // Phần dùng chung của chi tiết sự kiện (isRegistered == null), tra riêng isRegistered theo người xem
+    private final Cache<Integer, CachedDetail> detailCache;
+
+    /** Chi tiết dùng chung cho mọi người xem, kèm updated_at của bản đã dựng để so với phiên bản hiện tại */
+    private record CachedDetail(Instant updatedAt, EventDetailDto detail) {}
+
+    // Các đơn còn mở bị hủy theo khi sự kiện bị hủy
+    private static final List<RegistrationStatus> CANCELLABLE_ON_CLOSE =
+            List.of(RegistrationStatus.PENDING, RegistrationStatus.APPROVED, RegistrationStatus.WAITLISTED);
 
     private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
+    // Tổng số sự kiện xấp xỉ theo bộ lọc, chỉ dùng cho chế độ phân trang keyset
+    private final Cache<String, Long> approximateTotals = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .build();
+
     public EventService(EventRepository eventRepo,
                         CategoryRepository categoryRepo,
                         UserRepository userRepo,
                         EventRegistrationRepository regRepo,
                         PostRepository postRepo,
-                        NotificationService notificationService) {
+                        NotificationService notificationService,
+                        ApplicationEventPublisher eventPublisher,
+                        EventSearchService searchService,
+                        HotEventsService hotEventsService,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.event-detail-cache.maximum-size:10000}") long detailCacheMaximumSize,
+                        @Value("${app.event-detail-cache.ttl:PT5M}") Duration detailCacheTtl) {
         this.eventRepo = eventRepo;
         this.categoryRepo = categoryRepo;
         this.userRepo = userRepo;
         this.regRepo = regRepo;
         this.postRepo = postRepo;
         this.notificationService = notificationService;
+        this.eventPublisher = eventPublisher;
+        this.searchService = searchService;
+        this.hotEventsService = hotEventsService;
+        this.detailCache = Caffeine.newBuilder()
+                .maximumSize(detailCacheMaximumSize)
+                .expireAfterWrite(detailCacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, detailCache, "event.detail");
     }
 
     /* ==================== TÌNH NGUYỆN VIÊN ==================== */
 
-    public Page<EventDetailDto> getEvents(String email, String category, String city, String district, String ward, String status, Integer page, Integer size, String sort) {
+    /**
+     * Trang sự kiện kèm phiên bản: ETag tính từ (người xem, tham số, tổng số, id + updatedAt từng sự kiện),
+     * phần map DTO (đếm đăng ký, trạng thái đăng ký) chỉ chạy khi client chưa có bản hiện tại
+     */
+    public Versioned<Page<EventDetailDto>> getEvents(String email, String category, String city, String district, String ward, String status, Integer page, Integer size, String sort) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(sort.split(",")[0]).descending());
 
-        Page<Event> result = eventRepo.findEvents(
-                category,
-                city,
-                district,
-                ward,
-                status,
-                pageable
-        );
-        return result.map(event -> toDetailDto(event, email));
+        Optional<Specification<Event>> filter = buildFilter(category, city, district, ward, status);
+        if (filter.isEmpty()) {
+            return Versioned.of(null, () -> Page.empty(pageable), "events", category, "empty", page, size, sort);
+        }
+
+        Page<Event> result = eventRepo.findAll(filter.get(), pageable);
+
+        List<Object> versionParts = new ArrayList<>(List.of("events", email, category, String.valueOf(city),
+                String.valueOf(district), String.valueOf(ward), String.valueOf(status), page, size, sort,
+                result.getTotalElements()));
+        for (Event e : result.getContent()) {
+            versionParts.add(e.getId());
+            versionParts.add(e.getUpdatedAt());
+        }
+
+        // Không gửi Last-Modified cho danh sách: updatedAt mới nhất trong trang có thể lùi lại khi một phần tử rời trang
+        // (bị xóa / đổi trạng thái), If-Modified-Since khi đó sẽ trả 304 sai; chỉ dùng ETag
+        return Versioned.of(null, () -> {
+            List<EventDetailDto> content = toDetailDtos(result.getContent(), email);
+            return new PageImpl<>(content, result.getPageable(), result.getTotalElements());
+        }, versionParts.toArray());
+    }
+
+    /**
+     * Phân trang keyset theo (startAt, id): không dùng OFFSET và không đếm tổng,
+     * cursor trả về là vị trí của phần tử cuối trang (mã hóa base64)
+     */
+    public EventSliceDto getEventsAfter(String email, String category, String city, String district, String ward, String status, String cursor, Integer size, boolean includeTotal) {
+        if (size < 1 || size > 100) {
+            throw new BusinessException("INVALID_PAGE_SIZE", "Kích thước trang phải từ 1 đến 100");
+        }
+        SeekPosition after = cursor != null && !cursor.isBlank() ? SeekPosition.decode(cursor) : null;
+
+        Optional<Specification<Event>> filter = buildFilter(category, city, district, ward, status);
+        if (filter.isEmpty()) {
+            return new EventSliceDto(List.of(), null, includeTotal ? 0L : null);
+        }
+
+        Specification<Event> spec = after != null
+                ? filter.get().and(EventSpecifications.seekAfter(after.startAt(), after.id()))
+                : filter.get();
+        List<Event> events = eventRepo.findBy(spec, query -> query
+                .project("category", "createdBy")
+                .sortBy(Sort.by(Sort.Order.desc("startAt"), Sort.Order.desc("id")))
+                .limit(size + 1)
+                .all());
+
+        boolean hasNext = events.size() > size;
+        List<Event> slice = hasNext ? events.subList(0, size) : events;
+        String nextCursor = hasNext ? SeekPosition.of(slice.get(slice.size() - 1)).encode() : null;
+
+        Long approximateTotal = null;
+        if (includeTotal) {
+            String key = String.join("|", String.valueOf(category), String.valueOf(city), String.valueOf(district),
+                    String.valueOf(ward), String.valueOf(status));
+            approximateTotal = approximateTotals.get(key, k -> eventRepo.count(filter.get()));
+        }
+
+        return new EventSliceDto(toDetailDtos(slice, email), nextCursor, approximateTotal);
+    }
+
+    /** Tìm kiếm theo từ khóa qua index trong bộ nhớ, giữ nguyên thứ tự xếp hạng của index */
+    public List<EventDetailDto> searchEvents(String email, String q, Integer limit) {
+        if (limit < 1 || limit > 100) {
+            throw new BusinessException("INVALID_PAGE_SIZE", "Số kết quả phải từ 1 đến 100");
+        }
+        // index của node này có thể chưa kịp gỡ sự kiện vừa đổi trạng thái ở node khác: lọc lại theo DB
+        List<Event> approved = findInOrder(searchService.search(q, limit)).stream()
+                .filter(event -> event.getStatus() == EventStatus.APPROVED)
+                .toList();
+        return toDetailDtos(approved, email);
+    }
+
+    /** Sự kiện hot nhất theo cửa sổ 24h / 7d / all, lấy từ bảng xếp hạng trong bộ nhớ */
+    public List<EventDetailDto> getHotEvents(String email, String window, Integer limit) {
+        List<Integer> rankedIds = hotEventsService.top(HotEventsService.Window.parse(window), limit);
+        return toDetailDtos(findInOrder(rankedIds), email);
+    }
+
+    /** Chi tiết sự kiện kèm phiên bản; chỉ đọc updated_at trước, phần thân dựng khi cần */
+    public Versioned<EventDetailDto> getVersionedEventDetail(Integer eventId, String email) {
+        Instant updatedAt = eventRepo.findUpdatedAtById(eventId)
+                .orElseThrow(() -> new BusinessException("EVENT_NOT_FOUND", "Không tìm thấy sự kiện"));
+        // isRegistered phụ thuộc người xem: đăng ký/hủy đều cập nhật updatedAt của sự kiện
+        return Versioned.of(updatedAt, () -> getEventDetail(eventId, email, updatedAt), "event", eventId, updatedAt, email);
     }
 
     public EventDetailDto getEventDetail(Integer eventId, String email) {
-        Event event = eventRepo.findById(eventId)
+        Instant updatedAt = eventRepo.findUpdatedAtById(eventId)
                 .orElseThrow(() -> new BusinessException("EVENT_NOT_FOUND", "Không tìm thấy sự kiện"));
+        return getEventDetail(eventId, email, updatedAt);
+    }
+
+    /**
+     * Bản trong cache chỉ được dùng khi khớp đúng phiên bản updated_at vừa đọc: node khác ghi thì không xóa được
+     * cache của node này, nên nếu không so phiên bản có thể trả ETag mới kèm thân cũ
+     */
+    private EventDetailDto getEventDetail(Integer eventId, String email, Instant version) {
+        CachedDetail cached = detailCache.getIfPresent(eventId);
+        if (cached == null || !Objects.equals(cached.updatedAt(), version)) {
+            Event event = eventRepo.findWithDetailsById(eventId)
+                    .orElseThrow(() -> new BusinessException("EVENT_NOT_FOUND", "Không tìm thấy sự kiện"));
+            int registeredCount = regRepo.countByEventIds(List.of(eventId)).stream()
+                    .mapToInt(c -> c.count().intValue())
+                    .sum();
+            cached = new CachedDetail(event.getUpdatedAt(), toDetailDto(event, registeredCount, null));
+            detailCache.put(eventId, cached);
+        }
+
+        boolean isRegistered = !regRepo.findRegisteredEventIds(email, List.of(eventId)).isEmpty();
+        return withRegistered(cached.detail(), isRegistered);
+    }
+
+    /**
+     * Xóa chi tiết sự kiện khỏi cache sau khi giao dịch ghi commit trên node này
+     * (mọi thao tác ghi trong service này đều phát EventChangedEvent / RegistrationChangedEvent);
+     * thay đổi từ node khác được nhận ra qua updated_at khi đọc
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void evictDetail(EventChangedEvent change) {
+        detailCache.invalidate(change.eventId());
+    }
 
-        return toDetailDto(event, email);
+    @TransactionalEventListener(fallbackExecution = true)
+    public void evictDetail(RegistrationChangedEvent change) {
+        detailCache.invalidate(change.eventId());
     }
 
     @Transactional
@@ -81,18 +254,37 @@ public class EventService {
             throw new BusinessException("USER_ALREADY_REGISTERED_EVENT", "Bạn đã đăng ký sự kiện này");
         }
 
+        // Cấp chỗ bằng một câu UPDATE có điều kiện TRƯỚC khi insert đơn: hàng sự kiện luôn bị khóa trước hàng đơn
+        // (cùng thứ tự với hủy đăng ký → promoteWaitlisted), nếu không hai giao dịch có thể deadlock.
+        // Hết chỗ thì đơn vào danh sách chờ.
+        boolean seated = eventRepo.tryTakeSeat(eventId) == 1;
+
         EventRegistration reg = new EventRegistration();
         reg.setUser(volunteer);
         reg.setEvent(event);
-        reg.setStatus(RegistrationStatus.PENDING);
+        reg.setStatus(seated ? RegistrationStatus.PENDING : RegistrationStatus.WAITLISTED);
         reg.setRegistrationDate(Instant.now());
-        regRepo.save(reg);
+        try {
+            // unique (user_id, event_id): hai lần bấm đồng thời chỉ một lần insert thành công;
+            // lần thua rollback nên chỗ vừa cấp cũng được trả lại
+            regRepo.saveAndFlush(reg);
+        } catch (DataIntegrityViolationException e) {
+            throw new BusinessException("USER_ALREADY_REGISTERED_EVENT", "Bạn đã đăng ký sự kiện này");
+        }
+
+        // cập nhật dấu thời gian bằng câu UPDATE riêng: không làm bẩn entity đọc không khóa (ghi đè trạng thái mới hơn)
+        eventRepo.touchUpdatedAt(List.of(eventId), Instant.now());
+        eventPublisher.publishEvent(new RegistrationChangedEvent(event.getId(), reg.getRegistrationDate(), null, reg.getStatus()));
 
         // Gửi thông báo cho volunteer
-        notificationService.send(volunteer, "Đăng ký sự kiện \"" + event.getTitle() + "\" thành công!");
+        notificationService.send(volunteer, seated
+                ? "Đăng ký sự kiện \"" + event.getTitle() + "\" thành công!"
+                : "Sự kiện \"" + event.getTitle() + "\" đã đủ chỗ, bạn đang ở trong danh sách chờ");
 
         // Gửi thông báo cho manager
-        notificationService.send(event.getCreatedBy(), "Tình nguyện viên " + volunteer.getFullName() + " đăng ký sự kiện của bạn");
+        if (seated) {
+            notificationService.send(event.getCreatedBy(), "Tình nguyện viên " + volunteer.getFullName() + " đăng ký sự kiện của bạn");
+        }
     }
 
     @Transactional
@@ -107,19 +299,47 @@ public class EventService {
             throw new BusinessException("CANCELLATION_TOO_LATE", "Không thể hủy trong vòng 24h trước sự kiện");
         }
 
+        RegistrationStatus previous = reg.getStatus();
+        if (previous == RegistrationStatus.CANCELLED || previous == RegistrationStatus.REJECTED) {
+            throw new BusinessException("REGISTRATION_NOT_ACTIVE", "Đơn đăng ký không còn hiệu lực");
+        }
+
         reg.setStatus(RegistrationStatus.CANCELLED);
         reg.setCancelAt(Instant.now());
+        reg.setCancelReason(CancelReason.VOLUNTEER);
         regRepo.save(reg);
+        moveSeat(event, previous, RegistrationStatus.CANCELLED);
+        eventRepo.touchUpdatedAt(List.of(eventId), Instant.now());
+        eventPublisher.publishEvent(new RegistrationChangedEvent(event.getId(), reg.getRegistrationDate(), previous, reg.getStatus()));
 
         notificationService.send(volunteer, "Hủy đăng ký sự kiện \"" + event.getTitle() + "\" thành công");
     }
 
     public List<EventDetailDto> getMyRegistrations(String email) {
         User user = userRepo.getByEmail(email).orElseThrow(() -> new BusinessException("USER_NOT_FOUND", "Không tìm thấy người dùng"));
-        return regRepo.findByUser(user).stream()
+        List<Event> events = regRepo.findByUser(user).stream()
                 .map(EventRegistration::getEvent)
-                .map(event -> toDetailDto(event, email))
                 .toList();
+        return toDetailDtos(events, email);
+    }
+
+    /** Đơn đăng ký của người dùng theo trang, lọc theo trạng thái đơn; một truy vấn dữ liệu + một truy vấn đếm */
+    public Page<MyRegistrationDto> getMyRegistrations(String email, String status, Integer page, Integer size) {
+        if (page < 0 || size < 1 || size > 100) {
+            throw new BusinessException("INVALID_PAGE_SIZE", "Kích thước trang phải từ 1 đến 100");
+        }
+        User user = userRepo.getByEmail(email).orElseThrow(() -> new BusinessException("USER_NOT_FOUND", "Không tìm thấy người dùng"));
+
+        return regRepo.findMyRegistrations(user, parseRegistrationStatus(status), PageRequest.of(page, size))
+                .map(r -> new MyRegistrationDto(
+                        r.registrationId(),
+                        r.registrationStatus().name(),
+                        Objects.toString(r.registrationDate(), null),
+                        Objects.toString(r.cancelAt(), null),
+                        new EventSummaryDto(r.eventId(), r.title(), r.categoryName(), r.city(), r.district(), r.ward(),
+                                Objects.toString(r.startAt(), null), Objects.toString(r.endAt(), null)),
+                        r.eventStatus().name()
+                ));
     }
 
     /* ==================== QUẢN LÝ SỰ KIỆN ==================== */
@@ -156,7 +376,9 @@ public class EventService {
         event.setEndAt(endAt);
         event.setCreatedBy(manager);
         event.setStatus(EventStatus.PENDING);
+        event.setCapacity(dto.capacity());
         eventRepo.save(event);
+        eventPublisher.publishEvent(new EventChangedEvent(null, EventSnapshot.of(event)));
 
         notificationService.send(manager, "Sự kiện \"" + event.getTitle() + "\" đã được tạo, chờ duyệt");
     }
@@ -164,7 +386,7 @@ public class EventService {
     @Transactional
     public void updateEvent(Integer eventId, EventUpdateDto dto, String email) {
         User manager = userRepo.getByEmail(email).orElseThrow(() -> new BusinessException("MANAGER_NOT_FOUND", "Không tìm thấy quản lý sự kiện"));
-        Event event = eventRepo.findById(eventId).orElseThrow(() -> new BusinessException("EVENT_NOT_FOUND", "Không tìm thấy sự kiện"));
+        Event event = eventRepo.findForUpdateById(eventId).orElseThrow(() -> new BusinessException("EVENT_NOT_FOUND", "Không tìm thấy sự kiện"));
 
         if (!event.getCreatedBy().equals(manager)) {
             throw new AccessDeniedException("Bạn không phải là người tạo sự kiện này");
@@ -173,14 +395,16 @@ public class EventService {
             throw new BusinessException("EVENT_NOT_EDITABLE", "Chỉ sửa được khi đang chờ duyệt");
         }
 
+        EventSnapshot before = EventSnapshot.of(event);
         updateEventFromDto(event, dto);
         eventRepo.save(event);
+        eventPublisher.publishEvent(new EventChangedEvent(before, EventSnapshot.of(event)));
     }
 
     @Transactional
     public void closeEvent(Integer eventId, String action, String email) {
         User manager = userRepo.getByEmail(email).orElseThrow(() -> new BusinessException("MANAGER_NOT_FOUND", "Không tìm thấy quản lý sự kiện"));
-        Event event = eventRepo.findById(eventId).orElseThrow(() -> new BusinessException("EVENT_NOT_FOUND", "Không tìm thấy sự kiện"));
+        Event event = eventRepo.findForUpdateById(eventId).orElseThrow(() -> new BusinessException("EVENT_NOT_FOUND", "Không tìm thấy sự kiện"));
 
         if (!event.getCreatedBy().equals(manager)) {
             throw new AccessDeniedException("Bạn không phải là người tạo sự kiện này");
@@ -191,8 +415,14 @@ public class EventService {
                 throw new BusinessException("INVALID_ACTION", "Bạn không thể hủy sự kiện đã đóng");
             }
 
+            EventSnapshot before = EventSnapshot.of(event);
             event.setStatus(EventStatus.CANCELLED);
             eventRepo.save(event);
+            Instant closedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+            regRepo.cancelByEvent(eventId, CANCELLABLE_ON_CLOSE, closedAt);
+            eventRepo.releaseSeats(eventId, Integer.MAX_VALUE);
+            eventPublisher.publishEvent(new EventChangedEvent(before, EventSnapshot.of(event)));
+            eventPublisher.publishEvent(new EventClosedEvent(eventId, event.getTitle(), EventStatus.CANCELLED, closedAt, null));
 
             notificationService.send(event.getCreatedBy(), "Sự kiện \"" + event.getTitle() + "\" đã bị hủy");
         } else if (action.equalsIgnoreCase("COMPLETE")) {
@@ -200,12 +430,12 @@ public class EventService {
                 throw new BusinessException("INVALID_ACTION", "Chỉ có thể đánh dấu hoàn thành cho sự kiện đã được APPROVED");
             }
 
+            EventSnapshot before = EventSnapshot.of(event);
             event.setStatus(EventStatus.COMPLETED);
             eventRepo.save(event);
-
-            regRepo.findByEvent(event).stream()
-                    .filter(reg -> reg.getStatus() == RegistrationStatus.APPROVED)
-                    .forEach(reg -> reg.setStatus(RegistrationStatus.COMPLETED));
+            regRepo.updateStatusByEvent(eventId, List.of(RegistrationStatus.APPROVED), RegistrationStatus.COMPLETED);
+            eventPublisher.publishEvent(new EventChangedEvent(before, EventSnapshot.of(event)));
+            eventPublisher.publishEvent(new EventClosedEvent(eventId, event.getTitle(), EventStatus.COMPLETED, Instant.now(), null));
 
             notificationService.send(event.getCreatedBy(), "Sự kiện \"" + event.getTitle() + "\" đã hoàn thành");
         } else {
@@ -222,7 +452,9 @@ public class EventService {
             throw new AccessDeniedException("Không có quyền xóa");
         }
 
+        EventSnapshot before = EventSnapshot.of(event);
         eventRepo.delete(event);
+        eventPublisher.publishEvent(new EventChangedEvent(before, null));
     }
 
     @Transactional
@@ -240,13 +472,13 @@ public class EventService {
             default -> throw new BusinessException("INVALID_ACTION", "Hành động không hợp lệ");
         };
 
-        reg.setStatus(switch (action.toUpperCase()) {
-            case "APPROVE" -> RegistrationStatus.APPROVED;
-            case "REJECT" -> RegistrationStatus.REJECTED;
-            default -> throw new BusinessException("INVALID_ACTION", "Hành động không hợp lệ");
-        });
+        RegistrationStatus previous = reg.getStatus();
+        reg.setStatus(status);
         reg.setApprovedBy(manager);
         regRepo.save(reg);
+        moveSeat(reg.getEvent(), previous, status);
+        eventRepo.touchUpdatedAt(List.of(reg.getEvent().getId()), Instant.now());
+        eventPublisher.publishEvent(new RegistrationChangedEvent(reg.getEvent().getId(), reg.getRegistrationDate(), previous, status));
 
         String msg = status == RegistrationStatus.APPROVED ?
                 "Đơn đăng ký cho sự kiện: \"" + reg.getEvent().getTitle() + "\" đã được duyệt" :
@@ -255,6 +487,103 @@ public class EventService {
         notificationService.send(reg.getUser(), msg);
     }
 
+    /**
+     * Duyệt/từ chối nhiều đơn trong một request: một truy vấn đọc cả lô kèm người tạo sự kiện để kiểm tra quyền,
+     * cấp/trả chỗ theo từng sự kiện, đổi trạng thái bằng câu UPDATE hàng loạt và gửi thông báo theo lô.
+     * Đơn không hợp lệ được bỏ qua và báo lỗi riêng trong kết quả thay vì làm hỏng cả lô.
+     */
+    @Transactional
+    public RegistrationBatchResultDto reviewRegistrations(RegistrationBatchDto dto, String managerEmail) {
+        User manager = userRepo.getByEmail(managerEmail).orElseThrow(() -> new BusinessException("MANAGER_NOT_FOUND", "Không tìm thấy quản lý sự kiện"));
+
+        RegistrationStatus target = switch (dto.action().toUpperCase()) {
+            case "APPROVE" -> RegistrationStatus.APPROVED;
+            case "REJECT" -> RegistrationStatus.REJECTED;
+            default -> throw new BusinessException("INVALID_ACTION", "Hành động không hợp lệ");
+        };
+        Set<RegistrationStatus> reviewable = target == RegistrationStatus.APPROVED
+                ? EnumSet.of(RegistrationStatus.PENDING, RegistrationStatus.WAITLISTED)
+                : EnumSet.of(RegistrationStatus.PENDING, RegistrationStatus.WAITLISTED, RegistrationStatus.APPROVED);
+
+        List<Integer> ids = dto.registrationIds().stream().distinct().toList();
+        Map<Integer, RegistrationReviewRow> rows = regRepo.findReviewRows(ids).stream()
+                .collect(Collectors.toMap(RegistrationReviewRow::registrationId, r -> r));
+
+        Map<Integer, String> errors = new HashMap<>();
+        Map<Integer, List<RegistrationReviewRow>> byEvent = new LinkedHashMap<>();
+        for (Integer id : ids) {
+            RegistrationReviewRow row = rows.get(id);
+            if (row == null) {
+                errors.put(id, "REGISTRATION_NOT_FOUND");
+            } else if (!row.eventCreatorId().equals(manager.getId())) {
+                errors.put(id, "NOT_EVENT_OWNER");
+            } else if (!reviewable.contains(row.status())) {
+                errors.put(id, "INVALID_REGISTRATION_STATUS");
+            } else {
+                byEvent.computeIfAbsent(row.eventId(), e -> new ArrayList<>()).add(row);
+            }
+        }
+
+        // Cấp chỗ cho đơn trong danh sách chờ (đăng ký sớm trước) / trả chỗ của đơn bị từ chối, mỗi sự kiện một câu UPDATE
+        List<RegistrationReviewRow> applied = new ArrayList<>();
+        List<Integer> releasedEvents = new ArrayList<>();
+        for (Map.Entry<Integer, List<RegistrationReviewRow>> group : byEvent.entrySet()) {
+            if (target == RegistrationStatus.APPROVED) {
+                List<RegistrationReviewRow> waitlisted = group.getValue().stream()
+                        .filter(r -> r.status() == RegistrationStatus.WAITLISTED)
+                        .sorted(Comparator.comparing(RegistrationReviewRow::registrationDate)
+                                .thenComparing(RegistrationReviewRow::registrationId))
+                        .toList();
+                int granted = takeSeats(group.getKey(), waitlisted.size());
+                waitlisted.subList(granted, waitlisted.size()).forEach(r -> errors.put(r.registrationId(), "EVENT_FULL"));
+                group.getValue().stream()
+                        .filter(r -> !errors.containsKey(r.registrationId()))
+                        .forEach(applied::add);
+            } else {
+                int seats = (int) group.getValue().stream().filter(r -> holdsSeat(r.status())).count();
+                if (seats > 0) {
+                    eventRepo.releaseSeats(group.getKey(), seats);
+                    releasedEvents.add(group.getKey());
+                }
+                applied.addAll(group.getValue());
+            }
+        }
+
+        // Một câu UPDATE cho mỗi trạng thái cũ; có đơn vừa bị sửa ở chỗ khác thì hủy cả giao dịch (kể cả phần cấp chỗ)
+        Map<RegistrationStatus, List<Integer>> byStatus = applied.stream().collect(Collectors.groupingBy(
+                RegistrationReviewRow::status,
+                Collectors.mapping(RegistrationReviewRow::registrationId, Collectors.toList())));
+        for (Map.Entry<RegistrationStatus, List<Integer>> group : byStatus.entrySet()) {
+            if (regRepo.updateStatus(group.getValue(), group.getKey(), target, manager) != group.getValue().size()) {
+                throw new BusinessException("REGISTRATION_MODIFIED", "Một số đơn đăng ký vừa được cập nhật, vui lòng thử lại");
+            }
+        }
+
+        if (!applied.isEmpty()) {
+            eventRepo.touchUpdatedAt(byEvent.keySet(), Instant.now());
+        }
+        // Chỗ vừa trả được chuyển cho danh sách chờ sau khi trạng thái mới đã ghi, để không "thăng hạng" chính đơn vừa bị từ chối
+        releasedEvents.forEach(eventId -> promoteWaitlisted(eventRepo.getReferenceById(eventId)));
+
+        Map<Integer, List<String>> recipients = new LinkedHashMap<>();
+        Map<Integer, String> titles = new HashMap<>();
+        for (RegistrationReviewRow row : applied) {
+            eventPublisher.publishEvent(new RegistrationChangedEvent(row.eventId(), row.registrationDate(), row.status(), target));
+            recipients.computeIfAbsent(row.eventId(), e -> new ArrayList<>()).add(row.userEmail());
+            titles.put(row.eventId(), row.eventTitle());
+        }
+        recipients.forEach((eventId, emails) -> notificationService.sendBatch(emails, target == RegistrationStatus.APPROVED
+                ? "Đơn đăng ký cho sự kiện: \"" + titles.get(eventId) + "\" đã được duyệt"
+                : "Đơn đăng ký cho sự kiện: \"" + titles.get(eventId) + "\" đã bị từ chối"));
+
+        List<RegistrationBatchResultDto.Item> results = ids.stream()
+                .map(id -> errors.containsKey(id)
+                        ? new RegistrationBatchResultDto.Item(id, null, errors.get(id))
+                        : new RegistrationBatchResultDto.Item(id, target.name(), null))
+                .toList();
+        return new RegistrationBatchResultDto(applied.size(), ids.size() - applied.size(), results);
+    }
+
     public List<EventRegistrationDto> getRegistrationsByEvent(Integer eventId) {
         Event event = eventRepo.findById(eventId).orElseThrow(() -> new BusinessException("EVENT_NOT_FOUND", "Không tìm thấy sự kiện"));
         return regRepo.findByEvent(event).stream()
@@ -262,6 +591,51 @@ public class EventService {
                 .toList();
     }
 
+    /** Danh sách tình nguyện viên của sự kiện theo trang, lọc theo trạng thái và sắp theo ngày đăng ký / tên / trạng thái */
+    public Page<EventRegistrationDto> getRoster(Integer eventId, String managerEmail, String status,
+                                                Integer page, Integer size, String sort) {
+        if (page < 0 || size < 1 || size > 200) {
+            throw new BusinessException("INVALID_PAGE_SIZE", "Kích thước trang phải từ 1 đến 200");
+        }
+        Event event = requireOwnedEvent(eventId, managerEmail);
+
+        String[] sortParts = sort.split(",");
+        String property = switch (sortParts[0]) {
+            case "registrationDate" -> "registrationDate";
+            case "fullName" -> "user.fullName";
+            case "status" -> "status";
+            default -> throw new BusinessException("INVALID_SORT", "Chỉ sắp xếp theo registrationDate, fullName hoặc status");
+        };
+        Sort.Direction direction = sortParts.length > 1 && sortParts[1].equalsIgnoreCase("desc")
+                ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, property).and(Sort.by("id")));
+
+        return regRepo.findRoster(eventId, parseRegistrationStatus(status), pageable)
+                .map(r -> new EventRegistrationDto(
+                        r.registrationId(),
+                        event.getTitle(),
+                        r.userId(),
+                        r.fullName(),
+                        r.email(),
+                        r.status().name(),
+                        Objects.toString(r.registrationDate(), null),
+                        Objects.toString(r.cancelAt(), null)
+                ));
+    }
+
+    /** Kiểm tra quyền trước khi trả dữ liệu dạng stream */
+    public void checkEventOwner(Integer eventId, String managerEmail) {
+        requireOwnedEvent(eventId, managerEmail);
+    }
+
+    private Event requireOwnedEvent(Integer eventId, String managerEmail) {
+        Event event = eventRepo.findWithDetailsById(eventId).orElseThrow(() -> new BusinessException("EVENT_NOT_FOUND", "Không tìm thấy sự kiện"));
+        if (!event.getCreatedBy().getEmail().equals(managerEmail)) {
+            throw new AccessDeniedException("Bạn không phải là người tạo sự kiện này");
+        }
+        return event;
+    }
+
     /* ==================== ADMIN ==================== */
 
     @Transactional
@@ -274,20 +648,105 @@ public class EventService {
             default -> throw new BusinessException("INVALID_ACTION", "Hành động không hợp lệ");
         };
 
-        event.setStatus(status);
-        eventRepo.save(event);
+        // Chỉ duyệt sự kiện đang chờ, bằng câu UPDATE có điều kiện: không duyệt lại sự kiện đã hết hạn/hoàn thành
+        // và không ghi đè (bằng bản entity đọc không khóa) chuyển trạng thái vừa commit bởi lifecycle scheduler
+        if (eventRepo.transitionStatus(List.of(eventId), EventStatus.PENDING, status, Instant.now()) == 0) {
+            throw new BusinessException("EVENT_NOT_PENDING", "Chỉ có thể duyệt sự kiện đang chờ duyệt");
+        }
+
+        EventSnapshot before = EventSnapshot.of(event).withStatus(EventStatus.PENDING);
+        eventPublisher.publishEvent(new EventChangedEvent(before, before.withStatus(status)));
         notificationService.send(event.getCreatedBy(), "Sự kiện \"" + event.getTitle() + "\" đã được duyệt");
     }
 
-    public String exportEvents(String format) {
-        List<Event> events = eventRepo.findAll();
-        return format.equals("csv") ? toCsv(events) : toJson(events);
+    /**
+     * Cấp/trả chỗ khi đơn đổi trạng thái. Trả chỗ thì chuyển ngay người đầu danh sách chờ sang PENDING:
+     * UPDATE trả chỗ khóa hàng sự kiện tới hết giao dịch nên người đăng ký mới không chen được vào chỗ trống.
+     */
+    private void moveSeat(Event event, RegistrationStatus from, RegistrationStatus to) {
+        boolean held = holdsSeat(from);
+        boolean holds = holdsSeat(to);
+        if (!held && holds) {
+            if (eventRepo.tryTakeSeat(event.getId()) == 0) {
+                throw new BusinessException("EVENT_FULL", "Sự kiện đã đủ chỗ");
+            }
+        } else if (held && !holds) {
+            eventRepo.releaseSeat(event.getId());
+            promoteWaitlisted(event);
+        }
     }
 
-    private EventDetailDto toDetailDto(Event e, String email) {
-        User currentUser = userRepo.getByEmail(email).orElseThrow(() -> new BusinessException("USER_NOT_FOUND", "Không tìm thấy người dùng"));
-        boolean isReg = regRepo.existsByUserAndEvent(currentUser, e);
+    /** Cấp tối đa count chỗ, trả về số chỗ cấp được: thử cả nhóm một lần, không đủ thì cấp từng chỗ tới khi hết */
+    private int takeSeats(Integer eventId, int count) {
+        if (count == 0 || eventRepo.tryTakeSeats(eventId, count) == 1) {
+            return count;
+        }
+        int granted = 0;
+        while (granted < count && eventRepo.tryTakeSeat(eventId) == 1) {
+            granted++;
+        }
+        return granted;
+    }
+
+    private void promoteWaitlisted(Event event) {
+        while (true) {
+            Optional<EventRegistration> next = regRepo
+                    .findFirstByEventAndStatusOrderByRegistrationDateAscIdAsc(event, RegistrationStatus.WAITLISTED);
+            if (next.isEmpty() || eventRepo.tryTakeSeat(event.getId()) == 0) {
+                return;
+            }
+
+            EventRegistration reg = next.get();
+            reg.setStatus(RegistrationStatus.PENDING);
+            regRepo.save(reg);
+            eventPublisher.publishEvent(new RegistrationChangedEvent(event.getId(), reg.getRegistrationDate(),
+                    RegistrationStatus.WAITLISTED, RegistrationStatus.PENDING));
+            notificationService.send(reg.getUser(), "Đã có chỗ trống, bạn được chuyển từ danh sách chờ sang đăng ký sự kiện \""
+                    + event.getTitle() + "\"");
+        }
+    }
+
+    private static boolean holdsSeat(RegistrationStatus status) {
+        return status == RegistrationStatus.PENDING
+                || status == RegistrationStatus.APPROVED
+                || status == RegistrationStatus.COMPLETED;
+    }
+
+    /** Nạp sự kiện theo danh sách id đã xếp hạng, giữ nguyên thứ tự */
+    private List<Event> findInOrder(List<Integer> rankedIds) {
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, Event> byId = eventRepo.findWithDetailsByIdIn(rankedIds).stream()
+                .collect(Collectors.toMap(Event::getId, e -> e));
+        // index trong bộ nhớ có thể chậm hơn DB một chút: bỏ qua id không còn tồn tại
+        return rankedIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
 
+    /**
+     * Map một danh sách sự kiện sang DTO với số truy vấn cố định:
+     * 1 truy vấn đếm đăng ký (GROUP BY) + 1 truy vấn các sự kiện người dùng đã đăng ký
+     */
+    private List<EventDetailDto> toDetailDtos(List<Event> events, String email) {
+        if (events.isEmpty()) {
+            return List.of();
+        }
+
+        List<Integer> eventIds = events.stream().map(Event::getId).toList();
+        Map<Integer, Long> counts = regRepo.countByEventIds(eventIds).stream()
+                .collect(Collectors.toMap(EventRegistrationCount::eventId, EventRegistrationCount::count));
+        Set<Integer> registeredIds = regRepo.findRegisteredEventIds(email, eventIds);
+
+        return events.stream()
+                .map(e -> toDetailDto(e, counts.getOrDefault(e.getId(), 0L).intValue(), registeredIds.contains(e.getId())))
+                .toList();
+    }
+
+    private EventDetailDto toDetailDto(Event e, int registeredCount, Boolean isReg) {
         return new EventDetailDto(
                 e.getId(),
                 e.getTitle(),
@@ -301,12 +760,20 @@ public class EventService {
                 e.getEndAt().toString(),
                 e.getStatus().name(),
                 e.getCreatedBy().getFullName(),
-                regRepo.countByEvent(e),
+                registeredCount,
                 isReg,
-                e.getStatus() == EventStatus.APPROVED
+                e.getStatus() == EventStatus.APPROVED,
+                e.getCapacity(),
+                e.getCapacity() != null ? Math.max(e.getCapacity() - e.getSeatsTaken(), 0) : null
         );
     }
 
+    private static EventDetailDto withRegistered(EventDetailDto d, boolean isReg) {
+        return new EventDetailDto(d.eventId(), d.title(), d.description(), d.categoryName(), d.address(),
+                d.city(), d.district(), d.ward(), d.startAt(), d.endAt(), d.status(), d.createdBy(),
+                d.registeredCount(), isReg, d.isApproved(), d.capacity(), d.availableSeats());
+    }
+
     private EventRegistrationDto toRegistrationDto(EventRegistration r) {
         return new EventRegistrationDto(
                 r.getId(),
@@ -320,6 +787,65 @@ public class EventService {
         );
     }
 
+    /** Trả về Optional.empty() khi bộ lọc chắc chắn không khớp sự kiện nào (danh mục không tồn tại) */
+    private Optional<Specification<Event>> buildFilter(String category, String city, String district, String ward, String status) {
+        Integer categoryId = null;
+        if (category != null) {
+            Optional<Category> found = categoryRepo.findByCategoryName(category);
+            if (found.isEmpty()) {
+                return Optional.empty();
+            }
+            categoryId = found.get().getId();
+        }
+        return Optional.of(EventSpecifications.filter(categoryId, city, district, ward, parseStatusFilter(status)));
+    }
+
+    public static RegistrationStatus parseRegistrationStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        try {
+            return RegistrationStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("INVALID_STATUS", "Trạng thái đơn đăng ký không hợp lệ");
+        }
+    }
+
+    private EventStatus parseStatusFilter(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        try {
+            return EventStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("INVALID_STATUS", "Trạng thái sự kiện không hợp lệ");
+        }
+    }
+
+    private record SeekPosition(Instant startAt, Integer id) {
+        static SeekPosition of(Event event) {
+            return new SeekPosition(event.getStartAt(), event.getId());
+        }
+
+        String encode() {
+            // sự kiện chưa có giờ bắt đầu: phần startAt để trống
+            String raw = (startAt != null ? startAt.toString() : "") + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static SeekPosition decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|");
+                // "null" là dạng cursor cũ của sự kiện không có startAt
+                Instant startAt = parts[0].isEmpty() || parts[0].equals("null") ? null : Instant.parse(parts[0]);
+                return new SeekPosition(startAt, Integer.parseInt(parts[1]));
+            } catch (RuntimeException e) {
+                throw new BusinessException("INVALID_CURSOR", "Cursor không hợp lệ");
+            }
+        }
+    }
+
     private void updateEventFromDto(Event event, EventUpdateDto dto) {
         if (dto.title() != null) event.setTitle(dto.title());
         if (dto.description() != null) event.setDescription(dto.description());
@@ -331,6 +857,7 @@ public class EventService {
         if (dto.city() != null) event.setCity(dto.city());
         if (dto.district() != null) event.setDistrict(dto.district());
         if (dto.ward() != null) event.setWard(dto.ward());
+        if (dto.capacity() != null) event.setCapacity(dto.capacity());
         if (dto.startAt() != null && !dto.startAt().isBlank()) {
             event.setStartAt(Instant.from(LocalDateTime.parse(dto.startAt(), ISO_FORMATTER)));
         }
@@ -338,20 +865,4 @@ public class EventService {
             event.setEndAt(Instant.from(LocalDateTime.parse(dto.endAt(), ISO_FORMATTER)));
         }
     }
-
-    private String toCsv(List<Event> events) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("ID,Tiêu đề,Thành phố,Trạng thái,Số người đăng ký\n");
-        events.forEach(e -> sb.append(String.format("%d,%s,%s,%s,%d\n",
-                e.getId(), e.getTitle(), e.getCity(), e.getStatus(), regRepo.countByEvent(e))));
-        return sb.toString();
-    }
-
-    private String toJson(List<Event> events) {
-        // Dùng Jackson ObjectMapper trong thực tế
-        return events.stream()
-                .map(e -> Map.of("id", e.getId(), "title", e.getTitle()))
-                .toList()
-                .toString();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,274 @@
+package com.springweb.core.service;
+
+import com.springweb.core.dto.ExportJobDto;
+import com.springweb.core.exception.BusinessException;
+import com.springweb.core.exception.TooManyRequestsException;
+import com.springweb.core.repository.RoleRepository;
+import com.springweb.core.repository.UserExportRow;
+import com.springweb.core.repository.UserRepository;
+import com.springweb.core.util.CsvUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Xuất danh sách người dùng theo job: gửi yêu cầu → theo dõi tiến độ → tải file.
+ * Worker đọc theo từng đợt (keyset theo id) và ghi vào file riêng của job trên đĩa cục bộ kèm SHA-256;
+ * file và trạng thái job bị xóa sau thời gian lưu giữ. Trạng thái job giữ trong bộ nhớ của node chạy job.
+ */
+@Service
+public class ExportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportJobService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String[] USER_CSV_HEADER = {"Họ và tên", "Email", "Số điện thoại"};
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    /** File kết quả của một job đã xong, dùng cho API tải về */
+    public record Artifact(Path file, String filename, String sha256, long size) {}
+
+    private final UserRepository userRepo;
+    private final RoleRepository roleRepo;
+    private final MeterRegistry meterRegistry;
+    private final Path directory;
+    private final Duration retention;
+    private final int chunkSize;
+    private final ThreadPoolExecutor workers;
+
+    private final ConcurrentHashMap<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public ExportJobService(UserRepository userRepo,
+                            RoleRepository roleRepo,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.export-jobs.directory:${java.io.tmpdir}/volunteerhub-exports}") Path directory,
+                            @Value("${app.export-jobs.retention:PT24H}") Duration retention,
+                            @Value("${app.export-jobs.chunk-size:1000}") int chunkSize,
+                            @Value("${app.export-jobs.workers:2}") int workerCount,
+                            @Value("${app.export-jobs.queue-capacity:20}") int queueCapacity) {
+        this.userRepo = userRepo;
+        this.roleRepo = roleRepo;
+        this.meterRegistry = meterRegistry;
+        this.directory = directory;
+        this.retention = retention;
+        this.chunkSize = chunkSize;
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("export-job-", 0).daemon(true).factory());
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Không tạo được thư mục xuất dữ liệu " + directory, e);
+        }
+    }
+
+    public ExportJobDto submitUserExport(String roleName, String ownerEmail) {
+        if (roleName == null || roleName.isBlank()) {
+            throw new BusinessException("ROLE_REQUIRED", "Vui lòng chọn vai trò cần xuất");
+        }
+        String role = roleName.startsWith("ROLE_") ? roleName : "ROLE_" + roleName.toUpperCase();
+        if (roleRepo.findByName(role).isEmpty()) {
+            throw new BusinessException("ROLE_NOT_FOUND", "Không tìm thấy vai trò");
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), ownerEmail, role, Instant.now());
+        jobs.put(job.id, job);
+        try {
+            workers.execute(() -> runUserExport(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new TooManyRequestsException("Đang có quá nhiều yêu cầu xuất dữ liệu, vui lòng thử lại sau");
+        }
+        return toDto(job);
+    }
+
+    public ExportJobDto getJob(String jobId, String ownerEmail) {
+        return toDto(findOwnedJob(jobId, ownerEmail));
+    }
+
+    public Artifact getArtifact(String jobId, String ownerEmail) {
+        Job job = findOwnedJob(jobId, ownerEmail);
+        if (job.status != Status.COMPLETED) {
+            throw new BusinessException("EXPORT_NOT_READY", "File xuất dữ liệu chưa sẵn sàng");
+        }
+        return new Artifact(job.file, "users-" + job.roleName.substring("ROLE_".length()).toLowerCase() + ".csv",
+                job.sha256, job.sizeBytes);
+    }
+
+    private Job findOwnedJob(String jobId, String ownerEmail) {
+        Job job = jobs.get(jobId);
+        // job của người khác cũng báo "không tìm thấy" để không lộ id
+        if (job == null || !job.ownerEmail.equals(ownerEmail) || isExpired(job, Instant.now())) {
+            throw new BusinessException("EXPORT_JOB_NOT_FOUND", "Không tìm thấy yêu cầu xuất dữ liệu");
+        }
+        return job;
+    }
+
+    private void runUserExport(Job job) {
+        job.status = Status.RUNNING;
+        Path part = directory.resolve(job.id + ".csv.part");
+        Path target = directory.resolve(job.id + ".csv");
+        long startedAt = System.nanoTime();
+        try {
+            job.totalRows = userRepo.countByRole_Name(job.roleName);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new DigestOutputStream(Files.newOutputStream(part), digest), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                writer.write(CsvUtils.UTF8_BOM);
+                CsvUtils.writeLine(writer, USER_CSV_HEADER);
+
+                int afterId = 0;
+                List<UserExportRow> chunk;
+                do {
+                    chunk = userRepo.findExportRows(job.roleName, afterId, Limit.of(chunkSize));
+                    for (UserExportRow row : chunk) {
+                        CsvUtils.writeLine(writer, row.fullName(), row.email(), row.phoneNumber());
+                    }
+                    if (!chunk.isEmpty()) {
+                        afterId = chunk.get(chunk.size() - 1).id();
+                        job.processedRows.addAndGet(chunk.size());
+                    }
+                } while (chunk.size() == chunkSize);
+            }
+
+            // chỉ đổi tên khi đã ghi xong, nên file .csv luôn là file hoàn chỉnh
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            job.sha256 = HexFormat.of().formatHex(digest.digest());
+            job.sizeBytes = Files.size(target);
+            job.file = target;
+            job.completedAt = Instant.now();
+            job.status = Status.COMPLETED;
+        } catch (Exception e) {
+            log.warn("Export job {} failed", job.id, e);
+            deleteQuietly(part);
+            job.error = "Xuất dữ liệu thất bại";
+            job.completedAt = Instant.now();
+            job.status = Status.FAILED;
+        }
+        meterRegistry.timer("export.job.duration", "type", "users", "outcome", job.status.name().toLowerCase())
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    /** Xóa job và file đã quá hạn lưu giữ, kể cả file sót lại từ lần chạy trước của node (không còn job trong bộ nhớ) */
+    @Scheduled(fixedDelayString = "${app.export-jobs.sweep-interval-ms:600000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        jobs.values().removeIf(job -> {
+            if (!isExpired(job, now)) {
+                return false;
+            }
+            if (job.file != null) {
+                deleteQuietly(job.file);
+            }
+            return true;
+        });
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String jobId = file.getFileName().toString().split("\\.", 2)[0];
+                if (!jobs.containsKey(jobId)
+                        && Files.getLastModifiedTime(file).toInstant().plus(retention).isBefore(now)) {
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not sweep export directory {}", directory, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private boolean isExpired(Job job, Instant now) {
+        return job.completedAt != null && job.completedAt.plus(retention).isBefore(now);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}", file, e);
+        }
+    }
+
+    private ExportJobDto toDto(Job job) {
+        long processed = job.processedRows.get();
+        long total = Math.max(job.totalRows, processed);
+        Integer progress = switch (job.status) {
+            case QUEUED -> 0;
+            case COMPLETED -> 100;
+            case FAILED -> null;
+            // số dòng tổng chỉ là ước tính lúc bắt đầu, không báo 100% trước khi thật sự xong
+            case RUNNING -> total == 0 ? 0 : (int) Math.min(99, processed * 100 / total);
+        };
+        return new ExportJobDto(
+                job.id,
+                "USERS",
+                job.status.name(),
+                processed,
+                total,
+                progress,
+                job.sizeBytes,
+                job.sha256,
+                job.createdAt.toString(),
+                Objects.toString(job.completedAt, null),
+                job.completedAt != null ? job.completedAt.plus(retention).toString() : null,
+                job.error
+        );
+    }
+
+    private static final class Job {
+        final String id;
+        final String ownerEmail;
+        final String roleName;
+        final Instant createdAt;
+        final AtomicLong processedRows = new AtomicLong();
+        volatile Status status = Status.QUEUED;
+        volatile long totalRows;
+        volatile Path file;
+        volatile Long sizeBytes;
+        volatile String sha256;
+        volatile Instant completedAt;
+        volatile String error;
+
+        Job(String id, String ownerEmail, String roleName, Instant createdAt) {
+            this.id = id;
+            this.ownerEmail = ownerEmail;
+            this.roleName = roleName;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.springweb.core.service;
+
+import com.springweb.core.entity.EventStatus;
+import com.springweb.core.entity.RegistrationStatus;
+import com.springweb.core.event.EventChangedEvent;
+import com.springweb.core.event.RegistrationChangedEvent;
+import com.springweb.core.exception.BusinessException;
+import com.springweb.core.repository.EventRegistrationCount;
+import com.springweb.core.repository.EventRegistrationRepository;
+import com.springweb.core.repository.EventRepository;
+import com.springweb.core.repository.RegistrationTimestamp;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bảng xếp hạng sự kiện "hot" (nhiều đơn đăng ký còn hiệu lực nhất) giữ trong bộ nhớ của node,
+ * thay cho GROUP BY toàn bảng event_registrations mỗi lần gọi.
+ * Bộ đếm tổng được cập nhật theo RegistrationChangedEvent; bộ đếm theo cửa sổ (24h, 7 ngày) chia theo giờ đăng ký.
+ * Top-K được tính lại định kỳ thành danh sách bất biến nên đọc chỉ là cắt đầu danh sách.
+ */
+@Service
+public class HotEventsService {
+
+    private static final Logger log = LoggerFactory.getLogger(HotEventsService.class);
+
+    private static final List<RegistrationStatus> ACTIVE_STATUSES =
+            List.of(RegistrationStatus.PENDING, RegistrationStatus.APPROVED, RegistrationStatus.COMPLETED);
+    private static final long BUCKET_SECONDS = Duration.ofHours(1).toSeconds();
+
+    public enum Window {
+        DAY(Duration.ofHours(24)),
+        WEEK(Duration.ofDays(7)),
+        ALL_TIME(null);
+
+        private final Duration length;
+
+        Window(Duration length) {
+            this.length = length;
+        }
+
+        public static Window parse(String value) {
+            return switch (value.toLowerCase()) {
+                case "24h", "day" -> DAY;
+                case "7d", "week" -> WEEK;
+                case "all" -> ALL_TIME;
+                default -> throw new BusinessException("INVALID_WINDOW", "Khoảng thời gian không hợp lệ (24h, 7d, all)");
+            };
+        }
+    }
+
+    private final EventRepository eventRepo;
+    private final EventRegistrationRepository regRepo;
+    private final int capacity;
+
+    // Chỉ sự kiện đã duyệt mới được xếp hạng
+    private final Set<Integer> approvedEvents = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<Integer, LongAdder> allTimeCounts = new ConcurrentHashMap<>();
+    // giờ đăng ký (epoch hour) → (id sự kiện → số đơn còn hiệu lực đăng ký trong giờ đó)
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<Integer, LongAdder>> hourlyCounts = new ConcurrentHashMap<>();
+
+    private volatile Map<Window, List<Integer>> rankings = Map.of();
+
+    private final Timer refreshTimer;
+
+    public HotEventsService(EventRepository eventRepo,
+                            EventRegistrationRepository regRepo,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.hot-events.capacity:100}") int capacity) {
+        this.eventRepo = eventRepo;
+        this.regRepo = regRepo;
+        this.capacity = capacity;
+        this.refreshTimer = Timer.builder("event.hot.refresh")
+                .description("Thời gian tính lại bảng xếp hạng sự kiện hot")
+                .register(meterRegistry);
+    }
+
+    /** Id các sự kiện hot nhất trong cửa sổ, nhiều đăng ký nhất trước */
+    public List<Integer> top(Window window, int limit) {
+        if (limit < 1 || limit > capacity) {
+            throw new BusinessException("INVALID_PAGE_SIZE", "Số kết quả phải từ 1 đến " + capacity);
+        }
+        List<Integer> ranking = rankings.getOrDefault(window, List.of());
+        return ranking.subList(0, Math.min(limit, ranking.size()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRegistrationChanged(RegistrationChangedEvent change) {
+        boolean wasActive = RegistrationChangedEvent.isActive(change.before());
+        boolean isActive = RegistrationChangedEvent.isActive(change.after());
+        if (wasActive != isActive) {
+            count(change.eventId(), change.registeredAt(), isActive ? 1 : -1);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChanged(EventChangedEvent change) {
+        if (change.isDeleted()) {
+            approvedEvents.remove(change.eventId());
+            allTimeCounts.remove(change.eventId());
+            hourlyCounts.values().forEach(bucket -> bucket.remove(change.eventId()));
+        } else if (change.after().status() == EventStatus.APPROVED) {
+            approvedEvents.add(change.eventId());
+        } else {
+            approvedEvents.remove(change.eventId());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void seedOnStartup() {
+        reseed();
+    }
+
+    /**
+     * Nạp lại toàn bộ bộ đếm từ DB: lúc khởi động và mỗi ngày một lần,
+     * để bao gồm cả các đăng ký được xử lý trên node khác
+     */
+    @Scheduled(cron = "${app.hot-events.reseed-cron:0 0 4 * * *}")
+    public synchronized void reseed() {
+        Instant since = Instant.now().minus(Window.WEEK.length);
+        Set<Integer> approved = eventRepo.findIdsByStatus(EventStatus.APPROVED);
+        List<EventRegistrationCount> totals = regRepo.countByStatusIn(ACTIVE_STATUSES);
+        List<RegistrationTimestamp> recent = regRepo.findRegistrationTimesSince(ACTIVE_STATUSES, since);
+
+        approvedEvents.clear();
+        approvedEvents.addAll(approved);
+        allTimeCounts.clear();
+        totals.forEach(row -> counter(allTimeCounts, row.eventId()).add(row.count()));
+        hourlyCounts.clear();
+        recent.forEach(row -> counter(hourlyCounts.computeIfAbsent(bucketOf(row.registeredAt()),
+                b -> new ConcurrentHashMap<>()), row.eventId()).increment());
+
+        refresh();
+        log.info("Seeded hot events from {} approved event(s) and {} recent registration(s)", approved.size(), recent.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.hot-events.refresh-interval-ms:10000}",
+            initialDelayString = "${app.hot-events.refresh-interval-ms:10000}")
+    public void refresh() {
+        refreshTimer.record(() -> {
+            long currentBucket = bucketOf(Instant.now());
+            // bỏ các giờ đã trượt ra khỏi cửa sổ dài nhất
+            long oldestBucket = currentBucket - Window.WEEK.length.toSeconds() / BUCKET_SECONDS + 1;
+            hourlyCounts.keySet().removeIf(bucket -> bucket < oldestBucket);
+
+            Map<Window, List<Integer>> refreshed = new HashMap<>();
+            Map<Integer, Long> allTime = new HashMap<>();
+            allTimeCounts.forEach((eventId, count) -> allTime.put(eventId, count.sum()));
+            refreshed.put(Window.ALL_TIME, topK(allTime));
+            refreshed.put(Window.WEEK, topK(windowCounts(oldestBucket)));
+            refreshed.put(Window.DAY, topK(windowCounts(currentBucket - Window.DAY.length.toSeconds() / BUCKET_SECONDS + 1)));
+            rankings = Map.copyOf(refreshed);
+        });
+    }
+
+    private Map<Integer, Long> windowCounts(long fromBucket) {
+        Map<Integer, Long> counts = new HashMap<>();
+        hourlyCounts.forEach((bucket, perEvent) -> {
+            if (bucket >= fromBucket) {
+                perEvent.forEach((eventId, count) -> counts.merge(eventId, count.sum(), Long::sum));
+            }
+        });
+        return counts;
+    }
+
+    private List<Integer> topK(Map<Integer, Long> counts) {
+        PriorityQueue<Map.Entry<Integer, Long>> heap = new PriorityQueue<>(
+                Map.Entry.<Integer, Long>comparingByValue()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+        for (Map.Entry<Integer, Long> entry : counts.entrySet()) {
+            if (entry.getValue() <= 0 || !approvedEvents.contains(entry.getKey())) {
+                continue;
+            }
+            heap.add(entry);
+            if (heap.size() > capacity) {
+                heap.poll();
+            }
+        }
+
+        Integer[] ranked = new Integer[heap.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = heap.poll().getKey();
+        }
+        return List.of(ranked);
+    }
+
+    private void count(Integer eventId, Instant registeredAt, long delta) {
+        counter(allTimeCounts, eventId).add(delta);
+        if (registeredAt != null && registeredAt.isAfter(Instant.now().minus(Window.WEEK.length))) {
+            counter(hourlyCounts.computeIfAbsent(bucketOf(registeredAt), b -> new ConcurrentHashMap<>()), eventId).add(delta);
+        }
+    }
+
+    private static LongAdder counter(ConcurrentHashMap<Integer, LongAdder> counters, Integer eventId) {
+        return counters.computeIfAbsent(eventId, id -> new LongAdder());
+    }
+
+    private static long bucketOf(Instant instant) {
+        return instant.getEpochSecond() / BUCKET_SECONDS;
+    }
+}
@@ -0,0 +1,121 @@
+package com.springweb.core.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.springweb.core.exception.IdempotencyConflictException;
+import com.springweb.core.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.function.Supplier;
+
+/**
+ * Xử lý header Idempotency-Key cho các API ghi: request lặp lại (client retry khi timeout)
+ * nhận lại đúng response đã lưu thay vì thực hiện lại thao tác.
+ * Lưu trong bộ nhớ của node, có hạn dùng; khóa và dấu vân tay request đều được băm SHA-256 cho gọn.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    /** completed == false: request đầu tiên đang chạy */
+    private record StoredResponse(String fingerprint, boolean completed, int status, Object body) {}
+
+    private final Cache<String, StoredResponse> responses;
+
+    private final Counter executedCounter;
+    private final Counter replayedCounter;
+    private final Counter conflictCounter;
+
+    public IdempotencyService(MeterRegistry meterRegistry,
+                              @Value("${app.idempotency.maximum-size:100000}") long maximumSize,
+                              @Value("${app.idempotency.ttl:PT24H}") Duration ttl) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.executedCounter = outcomeCounter(meterRegistry, "executed");
+        this.replayedCounter = outcomeCounter(meterRegistry, "replayed");
+        this.conflictCounter = outcomeCounter(meterRegistry, "conflict");
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("idempotency.requests")
+                .description("Kết quả xử lý request có Idempotency-Key")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Chạy action một lần cho mỗi (người dùng, scope, key).
+     * Không có key thì chạy bình thường. Action ném lỗi thì key được giải phóng để client thử lại.
+     *
+     * @param scope       phương thức + đường dẫn, để cùng key ở API khác không bị nhầm
+     * @param requestBody thân request, dùng làm dấu vân tay: cùng key mà khác thân thì bị từ chối
+     */
+    public ResponseEntity<?> execute(String key, String email, String scope, Object requestBody,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("INVALID_IDEMPOTENCY_KEY", "Idempotency-Key tối đa " + MAX_KEY_LENGTH + " ký tự");
+        }
+
+        String storeKey = sha256(email + '\n' + scope + '\n' + key);
+        String fingerprint = sha256(String.valueOf(requestBody));
+
+        StoredResponse existing = responses.asMap().putIfAbsent(storeKey, new StoredResponse(fingerprint, false, 0, null));
+        if (existing != null) {
+            return replay(existing, fingerprint);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            responses.invalidate(storeKey);
+            throw e;
+        }
+        executedCounter.increment();
+        responses.put(storeKey, new StoredResponse(fingerprint, true, response.getStatusCode().value(), response.getBody()));
+        return response;
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String fingerprint) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            conflictCounter.increment();
+            throw new IdempotencyConflictException("IDEMPOTENCY_KEY_REUSED",
+                    "Idempotency-Key đã được dùng cho một request khác", false);
+        }
+        if (!stored.completed()) {
+            conflictCounter.increment();
+            throw new IdempotencyConflictException("IDEMPOTENCY_REQUEST_IN_PROGRESS",
+                    "Request với Idempotency-Key này đang được xử lý", true);
+        }
+        replayedCounter.increment();
+        return ResponseEntity.status(stored.status())
+                .header(REPLAYED_HEADER, "true")
+                .body(stored.body());
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
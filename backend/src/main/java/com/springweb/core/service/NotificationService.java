@@ -5,6 +5,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+
 @Service
 public class NotificationService {
 
@@ -20,6 +22,18 @@ public class NotificationService {
         // TODO: Lưu vào bảng notifications
     }
 
+    /**
+     * Gửi cùng một thông báo cho nhiều người (vd. duyệt hàng loạt) – hiện tại chỉ LOG một dòng cho cả lô
+     */
+    public void sendBatch(Collection<String> emails, String message) {
+        if (emails.isEmpty()) {
+            return;
+        }
+        log.info("NOTIFICATION → {} recipient(s) {}", emails.size(), message);
+        log.debug("NOTIFICATION recipients: {}", emails);
+        // TODO: Gửi Web Push / lưu bảng notifications bằng một lệnh batch insert
+    }
+
     /**
      * Đếm thông báo chưa đọc – tạm trả 0
      */
@@ -4,9 +4,11 @@ import com.springweb.core.dto.CommentCreateDto;
 import com.springweb.core.dto.PostCreateDto;
 import com.springweb.core.entity.*;
 import com.springweb.core.repository.CommentRepository;
+import com.springweb.core.repository.ContentVersion;
 import com.springweb.core.repository.EventRepository;
 import com.springweb.core.repository.PostLikeRepository;
 import com.springweb.core.repository.PostRepository;
+import com.springweb.core.util.Versioned;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -68,6 +70,9 @@ public class PostService {
         comment.setCreatedAt(Instant.now());
 
         commentRepository.save(comment);
+
+        // đổi phiên bản (ETag) của danh sách bình luận
+        postRepository.touchUpdatedAt(postId, Instant.now());
     }
 
     public boolean toggleLike(Integer postId, String username) {
@@ -93,18 +98,24 @@ public class PostService {
                 });
     }
 
-    public List<Post> getPostsByEvent(Integer eventId) {
+    public Versioned<List<Post>> getPostsByEvent(Integer eventId) {
         Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new IllegalArgumentException("Event not found"));
         if (event.getStatus() != EventStatus.APPROVED) {
             throw new IllegalStateException("Event is not approved yet");
         }
-        return postRepository.findByEventOrderByCreatedDateDesc(event);
+
+        ContentVersion version = postRepository.findVersionByEvent(event);
+        // danh sách chỉ dùng ETag: MAX(updatedAt) có thể lùi lại khi bài viết mới nhất bị xóa
+        return Versioned.of(null, () -> postRepository.findByEventOrderByCreatedDateDesc(event),
+                "posts", eventId, event.getUpdatedAt(), version.count(), version.lastModified());
     }
 
-    public List<Comment> getCommentsByPost(Integer postId) {
+    public Versioned<List<Comment>> getCommentsByPost(Integer postId) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new IllegalArgumentException("Post not found"));
-        return commentRepository.findByPostOrderByCreatedAtDesc(post);
+        // bình luận không sửa/xóa được, thêm bình luận thì post.updatedAt đổi
+        return Versioned.of(null, () -> commentRepository.findByPostOrderByCreatedAtDesc(post),
+                "comments", postId, post.getUpdatedAt());
     }
 }
@@ -0,0 +1,59 @@
+package com.springweb.core.service;
+
+import com.springweb.core.repository.SchedulerLeaseRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Khóa thuê theo thời hạn trong MySQL (bảng scheduler_leases) cho các job định kỳ chạy trên nhiều node:
+ * chỉ node đang giữ khóa được chạy, node chết thì khóa tự hết hạn và node khác tiếp quản.
+ * Mỗi lần giành/gia hạn là một câu UPDATE có điều kiện trong giao dịch riêng, commit ngay.
+ */
+@Service
+public class SchedulerLeaseService {
+
+    private final SchedulerLeaseRepository leaseRepo;
+    private final TransactionTemplate tx;
+    // định danh node: tên máy + id ngẫu nhiên (hai instance trên cùng máy vẫn khác nhau)
+    private final String owner;
+
+    public SchedulerLeaseService(SchedulerLeaseRepository leaseRepo, PlatformTransactionManager transactionManager) {
+        this.leaseRepo = leaseRepo;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+        this.owner = hostName() + ":" + UUID.randomUUID();
+    }
+
+    /** Giành khóa (hoặc gia hạn nếu đang giữ) trong khoảng ttl; false nếu node khác đang giữ */
+    public boolean tryAcquire(String name, Duration ttl) {
+        Instant now = Instant.now();
+        Integer updated = tx.execute(status -> {
+            int rows = leaseRepo.tryAcquire(name, owner, now, now.plus(ttl));
+            if (rows == 0 && leaseRepo.createIfMissing(name) == 1) {
+                rows = leaseRepo.tryAcquire(name, owner, now, now.plus(ttl));
+            }
+            return rows;
+        });
+        return updated != null && updated == 1;
+    }
+
+    /** Trả khóa sớm để lần chạy kế tiếp (có thể ở node khác) không phải chờ hết hạn */
+    public void release(String name) {
+        tx.executeWithoutResult(status -> leaseRepo.release(name, owner, Instant.now()));
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.springweb.core.service;
+
+import com.springweb.core.entity.User;
+
+/**
+ * Trạng thái bảo mật của một tài khoản: token chỉ hợp lệ khi mang đúng version hiện tại
+ */
+public record SecurityState(
+        int version,
+        boolean locked
+) {
+    public SecurityState(Integer version, User.UserStatus status) {
+        this(version != null ? version : 0, status == User.UserStatus.LOCKED);
+    }
+}
@@ -0,0 +1,39 @@
+package com.springweb.core.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.springweb.core.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bảng version bảo mật theo email, giữ trong bộ nhớ để JwtFilter không phải truy vấn users mỗi request.
+ * Node thực hiện khóa/đổi quyền cập nhật ngay; các node khác đọc lại từ DB sau tối đa app.security-state.ttl
+ * (mặc định 5 giây): đó là độ trễ tối đa để việc khóa tài khoản / thu hồi token có hiệu lực trên toàn cụm.
+ * Email không tồn tại cũng được cache (Optional rỗng) để không truy vấn DB ở mọi request.
+ */
+@Service
+public class SecurityStateService {
+    private final LoadingCache<String, Optional<SecurityState>> states;
+
+    public SecurityStateService(UserRepository userRepository,
+                                @Value("${app.security-state.maximum-size:100000}") long maximumSize,
+                                @Value("${app.security-state.ttl:PT5S}") Duration ttl) {
+        this.states = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build(userRepository::findSecurityStateByEmail);
+    }
+
+    /** Trả về null nếu không tìm thấy người dùng */
+    public SecurityState get(String email) {
+        return states.get(email).orElse(null);
+    }
+
+    public void update(String email, SecurityState state) {
+        states.put(email, Optional.of(state));
+    }
+}
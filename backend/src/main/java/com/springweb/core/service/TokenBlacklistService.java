@@ -0,0 +1,214 @@
+package com.springweb.core.service;
+
+import com.springweb.core.entity.JwtTokenBlacklist;
+import com.springweb.core.repository.JwtTokenBlacklistRepository;
+import com.springweb.core.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Danh sách JTI đã bị thu hồi, giữ trong bộ nhớ của node.
+ * Bloom filter trả lời nhanh trường hợp "chưa bị thu hồi" (phần lớn request),
+ * tập chính xác (jti → expiresAt) xác nhận các trường hợp còn lại.
+ * Bảng jwt_token_blacklist vẫn là nguồn dữ liệu gốc: nạp lúc khởi động và đồng bộ định kỳ
+ * để thấy các lần logout trên node khác.
+ */
+@Service
+public class TokenBlacklistService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenBlacklistService.class);
+
+    private final JwtTokenBlacklistRepository blacklistRepository;
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private volatile BloomFilter bloomFilter;
+    // thời điểm bắt đầu lượt đồng bộ trước; lượt sau đọc lùi lại syncOverlap để bắt bản ghi commit muộn
+    private volatile Instant syncedUntil = Instant.EPOCH;
+    private final Duration syncOverlap;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter falsePositiveCounter;
+    private final Counter expiredCounter;
+
+    private final int purgeBatchSize;
+    private final int purgeMaxBatches;
+    private final Counter purgedRowsCounter;
+    private final Timer purgeTimer;
+
+    public TokenBlacklistService(JwtTokenBlacklistRepository blacklistRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.jwt-blacklist.bloom-expected-insertions:100000}") int expectedInsertions,
+                                 @Value("${app.jwt-blacklist.bloom-false-positive-rate:0.01}") double falsePositiveRate,
+                                 @Value("${app.jwt-blacklist.purge-batch-size:1000}") int purgeBatchSize,
+                                 @Value("${app.jwt-blacklist.purge-max-batches:100}") int purgeMaxBatches,
+                                 @Value("${app.jwt-blacklist.sync-overlap:PT2M}") Duration syncOverlap) {
+        this.blacklistRepository = blacklistRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.purgeBatchSize = purgeBatchSize;
+        this.purgeMaxBatches = purgeMaxBatches;
+        this.syncOverlap = syncOverlap;
+        this.bloomFilter = new BloomFilter(expectedInsertions, falsePositiveRate);
+
+        this.hitCounter = lookupCounter(meterRegistry, "hit");
+        this.missCounter = lookupCounter(meterRegistry, "miss");
+        this.falsePositiveCounter = lookupCounter(meterRegistry, "false_positive");
+        this.expiredCounter = lookupCounter(meterRegistry, "expired");
+        Gauge.builder("jwt.blacklist.size", revoked, Map::size)
+                .description("Số JTI bị thu hồi còn hạn đang giữ trong bộ nhớ")
+                .register(meterRegistry);
+
+        this.purgedRowsCounter = Counter.builder("jwt.blacklist.purged.rows")
+                .description("Số bản ghi hết hạn đã xóa khỏi jwt_token_blacklist")
+                .register(meterRegistry);
+        this.purgeTimer = Timer.builder("jwt.blacklist.purge")
+                .description("Thời gian một lượt dọn jwt_token_blacklist")
+                .register(meterRegistry);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("jwt.blacklist.lookups")
+                .description("Kết quả kiểm tra JTI bị thu hồi")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void warmUp() {
+        sync();
+        log.info("Loaded {} revoked token(s) into blacklist index", revoked.size());
+    }
+
+    public boolean isRevoked(String jti) {
+        if (!bloomFilter.mightContain(jti)) {
+            missCounter.increment();
+            return false;
+        }
+
+        Instant expiresAt = revoked.get(jti);
+        if (expiresAt == null) {
+            falsePositiveCounter.increment();
+            return false;
+        }
+        // JTI có trong danh sách nhưng token đã hết hạn (chưa dọn): không phải dương tính giả của bloom filter
+        if (!expiresAt.isAfter(Instant.now())) {
+            expiredCounter.increment();
+            return false;
+        }
+
+        hitCounter.increment();
+        return true;
+    }
+
+    public void revoke(String jti, Instant expiresAt) {
+        revokeOnce(jti, expiresAt);
+    }
+
+    /**
+     * Thu hồi JTI, trả về false nếu JTI đã bị thu hồi trước đó (trên node này hoặc node khác).
+     * Dùng cho việc xoay vòng refresh token: false nghĩa là refresh token bị dùng lại.
+     */
+    public boolean revokeOnce(String jti, Instant expiresAt) {
+        if (isRevoked(jti)) {
+            return false;
+        }
+
+        JwtTokenBlacklist tokenBlacklist = new JwtTokenBlacklist();
+        tokenBlacklist.setJti(jti);
+        tokenBlacklist.setCreatedAt(Instant.now());
+        tokenBlacklist.setExpiresAt(expiresAt);
+        try {
+            blacklistRepository.save(tokenBlacklist);
+        } catch (DataIntegrityViolationException e) {
+            // unique (jti, expires_at): một request khác vừa thu hồi cùng JTI
+            remember(jti, expiresAt);
+            return false;
+        }
+
+        remember(jti, expiresAt);
+        return true;
+    }
+
+    /**
+     * Đồng bộ các bản ghi mới (kể cả do node khác thêm vào) từ DB.
+     * Không dùng id tự tăng làm mốc: các giao dịch thu hồi đồng thời có thể commit không theo thứ tự id,
+     * id nhỏ commit muộn sẽ bị bỏ qua mãi mãi. Thay vào đó đọc theo created_at, lùi lại một khoảng chồng lấn
+     * (lớn hơn độ trễ commit + lệch đồng hồ giữa các node); bản ghi đọc lại được bỏ qua theo JTI.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt-blacklist.sync-interval-ms:30000}",
+            initialDelayString = "${app.jwt-blacklist.sync-interval-ms:30000}")
+    public void sync() {
+        Instant now = Instant.now();
+        List<JwtTokenBlacklist> rows = syncedUntil.equals(Instant.EPOCH)
+                ? blacklistRepository.findByExpiresAtAfter(now)
+                : blacklistRepository.findByCreatedAtGreaterThanEqualAndExpiresAtAfterOrderByCreatedAtAsc(syncedUntil.minus(syncOverlap), now);
+        for (JwtTokenBlacklist row : rows) {
+            if (!revoked.containsKey(row.getJti())) {
+                remember(row.getJti(), row.getExpiresAt());
+            }
+        }
+        syncedUntil = now;
+    }
+
+    /** Bỏ các JTI đã hết hạn và dựng lại Bloom filter để không tích tụ bit cũ */
+    @Scheduled(fixedDelayString = "${app.jwt-blacklist.prune-interval-ms:300000}",
+            initialDelayString = "${app.jwt-blacklist.prune-interval-ms:300000}")
+    public void pruneExpired() {
+        Instant now = Instant.now();
+        synchronized (writeLock) {
+            revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedInsertions, revoked.size() * 2), falsePositiveRate);
+            revoked.keySet().forEach(rebuilt::put);
+            bloomFilter = rebuilt;
+        }
+    }
+
+    /**
+     * Xóa các bản ghi đã hết hạn khỏi DB theo lô (DELETE ... LIMIT), dừng khi hết dữ liệu hoặc đủ số lô tối đa.
+     * Khi bảng đã partition theo ngày (v4), partition cũ được drop bởi rotate_jwt_token_blacklist_partitions.
+     */
+    @Scheduled(cron = "${app.jwt-blacklist.purge-cron:0 */15 * * * *}")
+    public void purgeExpiredRows() {
+        purgeTimer.record(() -> {
+            Instant now = Instant.now();
+            int batches = 0;
+            int deleted;
+            do {
+                deleted = blacklistRepository.deleteExpiredBatch(now, purgeBatchSize);
+                purgedRowsCounter.increment(deleted);
+                batches++;
+            } while (deleted == purgeBatchSize && batches < purgeMaxBatches);
+        });
+    }
+
+    private void remember(String jti, Instant expiresAt) {
+        if (jti == null || expiresAt == null) {
+            return;
+        }
+        // Ghi vào tập chính xác trước rồi mới tới Bloom filter; khóa để không lọt JTI khi đang dựng lại filter
+        synchronized (writeLock) {
+            revoked.put(jti, expiresAt);
+            bloomFilter.put(jti);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.springweb.core.service;
+
+import com.springweb.core.dto.EventSummaryDto;
+import com.springweb.core.entity.Event;
+import com.springweb.core.entity.EventStatus;
+import com.springweb.core.event.EventChangedEvent;
+import com.springweb.core.event.EventSnapshot;
+import com.springweb.core.exception.BusinessException;
+import com.springweb.core.repository.EventRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Index các sự kiện đã duyệt chưa bắt đầu, sắp theo (startAt, id), giữ trong bộ nhớ
+ * để dashboard lấy "N sự kiện sắp tới" mà không truy vấn MySQL.
+ * Cập nhật theo EventChangedEvent sau commit; sự kiện đã bắt đầu bị bỏ khỏi đầu index khi đọc và khi dọn định kỳ.
+ */
+@Service
+public class UpcomingEventsService {
+
+    private static final Logger log = LoggerFactory.getLogger(UpcomingEventsService.class);
+
+    private record Key(Instant startAt, Integer id) {}
+
+    private static final Comparator<Key> ORDER = Comparator.comparing(Key::startAt).thenComparing(Key::id);
+
+    private final EventRepository eventRepo;
+
+    private final ConcurrentSkipListMap<Key, EventSnapshot> upcoming = new ConcurrentSkipListMap<>(ORDER);
+    // id sự kiện → khóa hiện tại trong index (để xóa khi startAt đổi)
+    private final ConcurrentHashMap<Integer, Key> keys = new ConcurrentHashMap<>();
+
+    public UpcomingEventsService(EventRepository eventRepo, MeterRegistry meterRegistry) {
+        this.eventRepo = eventRepo;
+        Gauge.builder("event.upcoming.size", upcoming, Map::size)
+                .description("Số sự kiện sắp tới đang giữ trong bộ nhớ")
+                .register(meterRegistry);
+    }
+
+    /** Các sự kiện sắp diễn ra gần nhất, lọc tùy chọn theo tỉnh/thành và tên danh mục */
+    public List<EventSummaryDto> next(int limit, String city, String category) {
+        if (limit < 1 || limit > 100) {
+            throw new BusinessException("INVALID_PAGE_SIZE", "Số kết quả phải từ 1 đến 100");
+        }
+        Instant now = Instant.now();
+        pruneStarted(now);
+
+        List<EventSummaryDto> result = new ArrayList<>(limit);
+        for (EventSnapshot event : upcoming.values()) {
+            if (!event.startAt().isAfter(now)) {
+                continue;
+            }
+            if ((city == null || city.equals(event.city()))
+                    && (category == null || category.equals(event.categoryName()))) {
+                result.add(toSummaryDto(event));
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChanged(EventChangedEvent change) {
+        EventSnapshot event = change.after();
+        if (event != null && event.status() == EventStatus.APPROVED
+                && event.startAt() != null && event.startAt().isAfter(Instant.now())) {
+            put(event);
+        } else {
+            remove(change.eventId());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void loadOnStartup() {
+        reload();
+    }
+
+    /** Nạp lại từ DB định kỳ để bắt kịp thay đổi từ node khác */
+    @Scheduled(fixedDelayString = "${app.upcoming-events.reload-interval-ms:3600000}",
+            initialDelayString = "${app.upcoming-events.reload-interval-ms:3600000}")
+    public synchronized void reload() {
+        List<Event> events = eventRepo.findUpcomingApproved(Instant.now(), Limit.unlimited());
+        Set<Integer> loadedIds = new HashSet<>(events.size());
+        for (Event event : events) {
+            put(EventSnapshot.of(event));
+            loadedIds.add(event.getId());
+        }
+        // sự kiện không còn trong DB (bị xóa/đổi trạng thái ở node khác)
+        keys.keySet().retainAll(loadedIds);
+        upcoming.keySet().removeIf(key -> !keys.containsKey(key.id()));
+        log.info("Loaded {} upcoming approved event(s)", events.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.upcoming-events.prune-interval-ms:60000}")
+    public void pruneStarted() {
+        pruneStarted(Instant.now());
+    }
+
+    private void pruneStarted(Instant now) {
+        Map.Entry<Key, EventSnapshot> head;
+        while ((head = upcoming.firstEntry()) != null && !head.getKey().startAt().isAfter(now)) {
+            if (upcoming.remove(head.getKey(), head.getValue())) {
+                keys.remove(head.getKey().id(), head.getKey());
+            }
+        }
+    }
+
+    private synchronized void put(EventSnapshot event) {
+        Key key = new Key(event.startAt(), event.id());
+        Key previous = keys.put(event.id(), key);
+        if (previous != null && !previous.equals(key)) {
+            upcoming.remove(previous);
+        }
+        upcoming.put(key, event);
+    }
+
+    private synchronized void remove(Integer eventId) {
+        Key previous = keys.remove(eventId);
+        if (previous != null) {
+            upcoming.remove(previous);
+        }
+    }
+
+    private static EventSummaryDto toSummaryDto(EventSnapshot event) {
+        return new EventSummaryDto(
+                event.id(),
+                event.title(),
+                event.categoryName(),
+                event.city(),
+                event.district(),
+                event.ward(),
+                event.startAt().toString(),
+                Objects.toString(event.endAt(), null)
+        );
+    }
+}
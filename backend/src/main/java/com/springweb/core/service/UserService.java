@@ -7,6 +7,7 @@ import com.springweb.core.repository.RoleRepository;
 import com.springweb.core.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -16,16 +17,21 @@ import java.time.Instant;
 import java.util.List;
 
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder encoder;
+    private final SecurityStateService securityStateService;
 
     @Autowired
-    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder encoder) {
+    public UserService(UserRepository userRepository,
+                       RoleRepository roleRepository,
+                       PasswordEncoder encoder,
+                       SecurityStateService securityStateService) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.encoder = encoder;
+        this.securityStateService = securityStateService;
     }
 
     public List<User> getAllUsers() {
@@ -51,6 +57,8 @@ public class UserService implements UserDetailsService {
                 .build();
 
         userRepository.save(user);
+        // ghi đè kết quả "không tồn tại" có thể đã được cache cho email này
+        securityStateService.update(user.getEmail(), new SecurityState(user.getSecurityVersion(), user.getStatus()));
     }
 
     public User findByEmail(String email) {
@@ -61,13 +69,14 @@ public class UserService implements UserDetailsService {
     public void lockUserByEmail(String email) {
         User user = findByEmail(email);
         user.setStatus(User.UserStatus.LOCKED);
-        userRepository.save(user);
+        saveWithNewSecurityVersion(user);
     }
 
     public void unlockUserByEmail(String email) {
         User user = findByEmail(email);
         user.setStatus(User.UserStatus.ACTIVE);
         userRepository.save(user);
+        securityStateService.update(email, new SecurityState(user.getSecurityVersion(), user.getStatus()));
     }
 
     public void changeUserRole(String email, String roleName) {
@@ -75,13 +84,27 @@ public class UserService implements UserDetailsService {
         Role role = roleRepository.findByName(roleName)
                 .orElseThrow(() -> new IllegalStateException("Role not found: " + roleName));
         user.setRole(role);
+        saveWithNewSecurityVersion(user);
+    }
+
+    /** Vô hiệu mọi access/refresh token đang lưu hành của người dùng */
+    public void revokeAllTokens(String email) {
+        saveWithNewSecurityVersion(findByEmail(email));
+    }
+
+    // Tăng security version để mọi token đã cấp (mang version cũ) hết hiệu lực ngay
+    private void saveWithNewSecurityVersion(User user) {
+        user.setSecurityVersion(user.getSecurityVersion() + 1);
         userRepository.save(user);
+        securityStateService.update(user.getEmail(), new SecurityState(user.getSecurityVersion(), user.getStatus()));
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.getByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Email not found"));
+        // Lần đăng nhập luôn đọc users nên làm mới luôn security version đang cache
+        securityStateService.update(user.getEmail(), new SecurityState(user.getSecurityVersion(), user.getStatus()));
         return org.springframework.security.core.userdetails.User
                 .withUsername(user.getEmail())
                 .password(user.getPassword())
@@ -89,4 +112,19 @@ public class UserService implements UserDetailsService {
                 .accountLocked(user.getStatus() != null && user.getStatus() == User.UserStatus.LOCKED)
                 .build();
     }
-}
+
+    /**
+     * Được DaoAuthenticationProvider gọi sau khi đăng nhập thành công nếu mật khẩu đã lưu
+     * dùng cost BCrypt khác cấu hình hiện tại; newPassword đã được băm sẵn
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = findByEmail(userDetails.getUsername());
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        return org.springframework.security.core.userdetails.User
+                .withUserDetails(userDetails)
+                .password(newPassword)
+                .build();
+    }
+}
\ No newline at end of file
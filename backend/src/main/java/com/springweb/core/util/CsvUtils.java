@@ -0,0 +1,35 @@
+package com.springweb.core.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Ghi CSV theo RFC 4180: ô có dấu phẩy, ngoặc kép hoặc xuống dòng được bọc trong ngoặc kép, ô null để trống
+ */
+public final class CsvUtils {
+    // BOM để Excel nhận đúng UTF-8 (tiếng Việt)
+    public static final char UTF8_BOM = '\uFEFF';
+
+    private CsvUtils() {
+    }
+
+    public static void writeLine(Writer writer, String... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
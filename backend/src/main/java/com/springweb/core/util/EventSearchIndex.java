@@ -0,0 +1,354 @@
+package com.springweb.core.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Inverted index trong bộ nhớ cho tìm kiếm sự kiện, xếp hạng theo BM25 có trọng số theo trường.
+ * <p>
+ * Mỗi lần đánh index một tài liệu được cấp một "ordinal" mới; posting list lưu (ordinal, tf) trong mảng nguyên thủy.
+ * Sửa/xóa chỉ đánh dấu ordinal cũ là đã chết, các posting chết được bỏ qua khi tra cứu.
+ * Khi ordinal chết chiếm quá nửa, index được nén: các ordinal còn sống được đánh số lại liên tục vào
+ * mảng và posting list mới, rồi thay cả bộ (State) một lần, nên bộ nhớ không tăng mãi theo số lần sửa/xóa.
+ * Ghi được tuần tự hóa; đọc không khóa trên một State cố định (mảng chỉ được nối thêm, kích thước công bố qua volatile).
+ * Từ cuối cùng của câu truy vấn được so khớp theo tiền tố để hỗ trợ gõ tới đâu tìm tới đó.
+ */
+public class EventSearchIndex {
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float PREFIX_BOOST = 0.5f;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MIN_DEAD_FOR_COMPACTION = 1_024;
+    private static final int DEAD = -1;
+    private static final int INITIAL_CAPACITY = 1_024;
+
+    /** Một trường văn bản của tài liệu cùng trọng số của nó */
+    public record Field(String text, float weight) {}
+
+    // id tài liệu → ordinal hiện hành
+    private final ConcurrentHashMap<Integer, Integer> ordinals = new ConcurrentHashMap<>();
+    // bộ đệm cộng điểm tái sử dụng giữa các truy vấn (an toàn với cả virtual thread, khác ThreadLocal)
+    private final ConcurrentLinkedQueue<ScoreBuffer> scoreBuffers = new ConcurrentLinkedQueue<>();
+
+    private volatile State state = new State(new ConcurrentHashMap<>(), new ConcurrentSkipListMap<>(),
+            new int[INITIAL_CAPACITY], new float[INITIAL_CAPACITY], 0);
+    private volatile double totalLength = 0;
+    private int deadCount = 0;
+
+    /** Posting list và bảng ordinal đi cùng nhau; nén tạo State mới thay vì sửa State mà reader đang đọc */
+    private static final class State {
+        // tra cứu chính xác qua hash map; bản sắp xếp chỉ dùng để mở rộng tiền tố
+        final ConcurrentHashMap<String, PostingList> postings;
+        final ConcurrentSkipListMap<String, PostingList> sortedTerms;
+        // ordinal → id tài liệu (DEAD nếu đã bị thay/xóa) và độ dài có trọng số
+        volatile int[] ordinalDocs;
+        volatile float[] ordinalLengths;
+        volatile int ordinalCount;
+
+        State(ConcurrentHashMap<String, PostingList> postings, ConcurrentSkipListMap<String, PostingList> sortedTerms,
+              int[] ordinalDocs, float[] ordinalLengths, int ordinalCount) {
+            this.postings = postings;
+            this.sortedTerms = sortedTerms;
+            this.ordinalDocs = ordinalDocs;
+            this.ordinalLengths = ordinalLengths;
+            this.ordinalCount = ordinalCount;
+        }
+    }
+
+    public synchronized void index(int id, List<Field> fields) {
+        Map<String, Float> terms = new HashMap<>();
+        float length = 0;
+        for (Field field : fields) {
+            for (String token : TextNormalizer.tokenize(field.text())) {
+                terms.merge(token, field.weight(), Float::sum);
+                length += field.weight();
+            }
+        }
+
+        removeInternal(id);
+        if (terms.isEmpty()) {
+            return;
+        }
+
+        State current = state;
+        int ordinal = current.ordinalCount;
+        if (ordinal == current.ordinalDocs.length) {
+            current.ordinalLengths = Arrays.copyOf(current.ordinalLengths, ordinal * 2);
+            current.ordinalDocs = Arrays.copyOf(current.ordinalDocs, ordinal * 2);
+        }
+        current.ordinalDocs[ordinal] = id;
+        current.ordinalLengths[ordinal] = length;
+
+        for (Map.Entry<String, Float> term : terms.entrySet()) {
+            PostingList list = current.postings.get(term.getKey());
+            if (list == null) {
+                list = new PostingList();
+                current.postings.put(term.getKey(), list);
+                current.sortedTerms.put(term.getKey(), list);
+            }
+            list.append(ordinal, term.getValue());
+        }
+
+        ordinals.put(id, ordinal);
+        totalLength += length;
+        // công bố ordinal sau cùng: reader thấy ordinalCount mới thì cũng thấy dữ liệu của nó
+        current.ordinalCount = ordinal + 1;
+    }
+
+    public synchronized void remove(int id) {
+        removeInternal(id);
+    }
+
+    public int size() {
+        return ordinals.size();
+    }
+
+    /** Trả về id các tài liệu khớp, điểm cao nhất trước */
+    public List<Integer> search(String query, int limit) {
+        List<String> tokens = TextNormalizer.tokenize(query);
+        int documentCount = ordinals.size();
+        if (tokens.isEmpty() || documentCount == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        State current = state;
+        int maxOrdinal = current.ordinalCount;
+        int[] docs = current.ordinalDocs;
+        float[] lengths = current.ordinalLengths;
+        float averageLength = (float) Math.max(totalLength / documentCount, 1.0);
+
+        ScoreBuffer buffer = borrowBuffer(maxOrdinal);
+        try {
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                boolean last = i == tokens.size() - 1;
+                for (Map.Entry<String, PostingList> entry : matchingTerms(current, token, last)) {
+                    Block block = entry.getValue().block;
+                    int df = block.size;
+                    if (df == 0) {
+                        continue;
+                    }
+                    float idf = (float) Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+                    // khớp tiền tố được tính nhẹ hơn khớp nguyên từ
+                    float weight = entry.getKey().equals(token) ? idf : idf * PREFIX_BOOST;
+
+                    for (int p = 0; p < df; p++) {
+                        int ordinal = block.ordinals[p];
+                        if (ordinal >= maxOrdinal || docs[ordinal] == DEAD) {
+                            continue;
+                        }
+                        float tf = block.frequencies[p];
+                        float norm = K1 * (1 - B + B * lengths[ordinal] / averageLength);
+                        buffer.add(ordinal, weight * tf * (K1 + 1) / (tf + norm));
+                    }
+                }
+            }
+            return buffer.top(limit, docs);
+        } finally {
+            buffer.clear();
+            // không giữ lại bộ đệm quá lớn so với index sau khi đã nén
+            if (buffer.scores.length <= 2 * state.ordinalDocs.length) {
+                scoreBuffers.offer(buffer);
+            }
+        }
+    }
+
+    private static List<Map.Entry<String, PostingList>> matchingTerms(State current, String token, boolean prefix) {
+        if (!prefix) {
+            PostingList exact = current.postings.get(token);
+            return exact != null ? List.of(Map.entry(token, exact)) : List.of();
+        }
+
+        NavigableMap<String, PostingList> range = current.sortedTerms.subMap(token, true, token + Character.MAX_VALUE, false);
+        List<Map.Entry<String, PostingList>> terms = new ArrayList<>();
+        for (Map.Entry<String, PostingList> entry : range.entrySet()) {
+            terms.add(entry);
+            if (terms.size() >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+        }
+        return terms;
+    }
+
+    private ScoreBuffer borrowBuffer(int maxOrdinal) {
+        ScoreBuffer buffer = scoreBuffers.poll();
+        if (buffer == null || buffer.scores.length < maxOrdinal) {
+            // đệm thêm chỗ để không phải cấp lại sau mỗi lần thêm tài liệu
+            buffer = new ScoreBuffer(maxOrdinal + maxOrdinal / 4 + 16);
+        }
+        return buffer;
+    }
+
+    private void removeInternal(int id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        State current = state;
+        totalLength -= current.ordinalLengths[ordinal];
+        current.ordinalDocs[ordinal] = DEAD;
+        deadCount++;
+
+        if (deadCount >= MIN_DEAD_FOR_COMPACTION && deadCount > ordinals.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Đánh số lại các ordinal còn sống thành 0..n-1 (giữ nguyên thứ tự nên thứ tự hòa điểm không đổi),
+     * chép posting còn sống sang State mới rồi thay một lần; reader đang chạy vẫn đọc trọn State cũ
+     */
+    private void compact() {
+        State current = state;
+        int count = current.ordinalCount;
+        int[] docs = current.ordinalDocs;
+        float[] lengths = current.ordinalLengths;
+
+        int live = ordinals.size();
+        int capacity = Math.max(INITIAL_CAPACITY, live + (live >> 1));
+        int[] newDocs = new int[capacity];
+        float[] newLengths = new float[capacity];
+        int[] remap = new int[count];
+        int next = 0;
+        for (int ordinal = 0; ordinal < count; ordinal++) {
+            if (docs[ordinal] == DEAD) {
+                remap[ordinal] = DEAD;
+                continue;
+            }
+            remap[ordinal] = next;
+            newDocs[next] = docs[ordinal];
+            newLengths[next] = lengths[ordinal];
+            ordinals.put(docs[ordinal], next);
+            next++;
+        }
+
+        ConcurrentHashMap<String, PostingList> newPostings = new ConcurrentHashMap<>();
+        ConcurrentSkipListMap<String, PostingList> newSortedTerms = new ConcurrentSkipListMap<>();
+        for (Map.Entry<String, PostingList> entry : current.postings.entrySet()) {
+            PostingList remapped = entry.getValue().remap(remap);
+            if (remapped.block.size > 0) {
+                newPostings.put(entry.getKey(), remapped);
+                newSortedTerms.put(entry.getKey(), remapped);
+            }
+        }
+
+        state = new State(newPostings, newSortedTerms, newDocs, newLengths, next);
+        // bộ đệm điểm cũ được cấp theo số ordinal trước khi nén
+        scoreBuffers.clear();
+        deadCount = 0;
+    }
+
+    private static final class PostingList {
+        volatile Block block = new Block(new int[4], new float[4], 0);
+
+        void append(int ordinal, float frequency) {
+            Block current = block;
+            int size = current.size;
+            if (size == current.ordinals.length) {
+                current = new Block(Arrays.copyOf(current.ordinals, size + (size >> 1) + 1),
+                        Arrays.copyOf(current.frequencies, size + (size >> 1) + 1), size);
+                block = current;
+            }
+            current.ordinals[size] = ordinal;
+            current.frequencies[size] = frequency;
+            current.size = size + 1;
+        }
+
+        /** Posting list mới chỉ gồm các posting còn sống, ordinal theo bảng đánh số lại */
+        PostingList remap(int[] remap) {
+            Block current = block;
+            int[] keptOrdinals = new int[Math.max(current.size, 4)];
+            float[] keptFrequencies = new float[keptOrdinals.length];
+            int kept = 0;
+            for (int p = 0; p < current.size; p++) {
+                int ordinal = remap[current.ordinals[p]];
+                if (ordinal != DEAD) {
+                    keptOrdinals[kept] = ordinal;
+                    keptFrequencies[kept] = current.frequencies[p];
+                    kept++;
+                }
+            }
+            PostingList remapped = new PostingList();
+            remapped.block = new Block(Arrays.copyOf(keptOrdinals, Math.max(kept, 4)),
+                    Arrays.copyOf(keptFrequencies, Math.max(kept, 4)), kept);
+            return remapped;
+        }
+    }
+
+    /** Mảng posting; chỉ ghi thêm ở cuối, size được công bố sau khi phần tử đã được ghi */
+    private static final class Block {
+        final int[] ordinals;
+        final float[] frequencies;
+        volatile int size;
+
+        Block(int[] ordinals, float[] frequencies, int size) {
+            this.ordinals = ordinals;
+            this.frequencies = frequencies;
+            this.size = size;
+        }
+    }
+
+    /** Mảng cộng điểm theo ordinal, ghi nhớ các ô đã chạm để xóa nhanh */
+    private static final class ScoreBuffer {
+        final float[] scores;
+        int[] touched = new int[256];
+        int touchedCount = 0;
+
+        ScoreBuffer(int capacity) {
+            this.scores = new float[capacity];
+        }
+
+        void add(int ordinal, float score) {
+            if (scores[ordinal] == 0) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = ordinal;
+            }
+            scores[ordinal] += score;
+        }
+
+        List<Integer> top(int limit, int[] docs) {
+            PriorityQueue<int[]> heap = new PriorityQueue<>(limit + 1, (a, b) -> compare(b[0], a[0]));
+            for (int i = 0; i < touchedCount; i++) {
+                int ordinal = touched[i];
+                if (docs[ordinal] == DEAD) {
+                    continue;
+                }
+                if (heap.size() < limit) {
+                    heap.add(new int[]{ordinal});
+                } else if (compare(ordinal, heap.peek()[0]) < 0) {
+                    heap.poll();
+                    heap.add(new int[]{ordinal});
+                }
+            }
+
+            Integer[] ranked = new Integer[heap.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                ranked[i] = docs[heap.poll()[0]];
+            }
+            return List.of(ranked);
+        }
+
+        /** Điểm cao hơn đứng trước; bằng điểm thì ordinal (tài liệu) cũ hơn đứng trước */
+        private int compare(int left, int right) {
+            int byScore = Float.compare(scores[right], scores[left]);
+            return byScore != 0 ? byScore : Integer.compare(left, right);
+        }
+
+        void clear() {
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0;
+            }
+            touchedCount = 0;
+        }
+    }
+}
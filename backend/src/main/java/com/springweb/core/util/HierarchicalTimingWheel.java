@@ -0,0 +1,174 @@
+package com.springweb.core.util;
+
+import java.util.function.Consumer;
+
+/**
+ * Bánh xe thời gian phân cấp (hierarchical timing wheel) cho nhiều hẹn giờ trong bộ nhớ.
+ * <p>
+ * Thời gian được chia thành tick; mỗi cấp có 64 ô, ô ở cấp k bao 64^k tick. Hẹn giờ xa được đặt ở cấp cao
+ * và được "hạ cấp" dần khi kim cấp dưới quay hết một vòng, nên thêm/hủy là O(1) và mỗi tick chỉ chạm
+ * các hẹn giờ tới hạn cộng phần hạ cấp (chia đều theo thời gian). Mỗi ô là danh sách liên kết đôi để hủy O(1).
+ * Hẹn giờ vượt quá phạm vi cấp cao nhất được giữ ở ô xa nhất và tự hạ cấp lại khi tới lượt.
+ * Mọi thao tác được đồng bộ trên đối tượng; callback của advance chạy trong khóa nên cần ngắn (vd. chỉ chuyển việc sang luồng khác).
+ */
+public class HierarchicalTimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 6;
+    // phạm vi tối đa (tính bằng tick) trước khi phải kẹp vào ô xa nhất
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    /** Một hẹn giờ đã đặt; giữ lại để hủy */
+    public static final class Timeout<T> {
+        private final T payload;
+        private final long deadlineTick;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+        private Slot<T> slot;
+
+        private Timeout(T payload, long deadlineTick) {
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T payload() {
+            return payload;
+        }
+
+        public boolean isPending() {
+            return slot != null;
+        }
+    }
+
+    private static final class Slot<T> {
+        Timeout<T> head;
+
+        void add(Timeout<T> timeout) {
+            timeout.slot = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.slot = null;
+        }
+
+        /** Tháo cả danh sách ra khỏi ô, trả về phần tử đầu */
+        Timeout<T> detachAll() {
+            Timeout<T> first = head;
+            head = null;
+            return first;
+        }
+    }
+
+    private final long tickMillis;
+    private final Slot<T>[][] wheels;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.wheels = new Slot[LEVELS][SLOTS];
+        for (Slot<T>[] wheel : wheels) {
+            for (int i = 0; i < SLOTS; i++) {
+                wheel[i] = new Slot<>();
+            }
+        }
+    }
+
+    /** Đặt hẹn giờ; deadline đã qua thì hẹn giờ tới hạn ở tick kế tiếp */
+    public synchronized Timeout<T> schedule(T payload, long deadlineMillis) {
+        // làm tròn lên: không bao giờ kích hoạt sớm hơn deadline
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        Timeout<T> timeout = new Timeout<>(payload, Math.max(deadlineTick, currentTick + 1));
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /** Hủy hẹn giờ; false nếu đã tới hạn hoặc đã hủy trước đó */
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.slot == null) {
+            return false;
+        }
+        timeout.slot.remove(timeout);
+        size--;
+        return true;
+    }
+
+    /** Quay kim tới thời điểm nowMillis, gọi onExpired cho mọi hẹn giờ tới hạn theo thứ tự tick */
+    public synchronized int advance(long nowMillis, Consumer<T> onExpired) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        int expired = 0;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            Timeout<T> timeout = wheels[0][(int) (currentTick & SLOT_MASK)].detachAll();
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                timeout.prev = null;
+                timeout.next = null;
+                timeout.slot = null;
+                size--;
+                expired++;
+                onExpired.accept(timeout.payload);
+                timeout = next;
+            }
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /** Khi kim cấp dưới về 0, đổ ô hiện tại của cấp trên xuống (lặp lên các cấp cao hơn nếu chúng cũng về 0) */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int lowerIndex = (int) ((currentTick >>> (SLOT_BITS * (level - 1))) & SLOT_MASK);
+            if (lowerIndex != 0) {
+                return;
+            }
+            int index = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            Timeout<T> timeout = wheels[level][index].detachAll();
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                place(timeout);
+                timeout = next;
+            }
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delta = timeout.deadlineTick - currentTick;
+        long tick = delta > MAX_DELTA ? currentTick + MAX_DELTA : timeout.deadlineTick;
+        delta = tick - currentTick;
+        int level = 0;
+        // cấp thấp nhất mà khoảng cách còn nằm trong phạm vi 64^(level+1) tick
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int index = (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        wheels[level][index].add(timeout);
+    }
+}
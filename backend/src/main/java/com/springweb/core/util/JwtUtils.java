@@ -1,54 +1,107 @@
 package com.springweb.core.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.AccessLevel;
 import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
 import java.util.UUID;
 
 @Getter
 @Component
 public class JwtUtils {
+    public static final String TOKEN_TYPE_ACCESS = "access";
+    public static final String TOKEN_TYPE_REFRESH = "refresh";
+
     private final SecretKey key;
+    private final JwtParser parser;
+
+    // digest của token → claims đã kiểm tra, hết hạn không muộn hơn chính token
+    @Getter(AccessLevel.NONE)
+    private final Cache<String, VerifiedToken> verifiedTokens;
 
     private final long accessTokenExpirationTimeInMs = 1 * 3600 * 1000; //1 hour
     private final long refreshTokenExpirationTimeInMs = 7 * 24 * 60 * 60 * 1000; //7 days
 
-    public JwtUtils(SecretKey key) {
+    public JwtUtils(SecretKey key,
+                    @Value("${app.jwt-cache.maximum-size:50000}") long cacheMaximumSize,
+                    @Value("${app.jwt-cache.max-ttl:PT5M}") Duration cacheMaxTtl) {
         this.key = key;
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(Expiry.<String, VerifiedToken>creating((digest, verified) -> {
+                    Duration untilExpiry = Duration.between(Instant.now(), verified.expiresAt());
+                    if (untilExpiry.isNegative()) {
+                        return Duration.ZERO;
+                    }
+                    return untilExpiry.compareTo(cacheMaxTtl) < 0 ? untilExpiry : cacheMaxTtl;
+                }))
+                .build();
     }
 
-    public String generateAccessToken(UserDetails userDetails) {
-        return generateToken(userDetails, accessTokenExpirationTimeInMs);
+    public String generateAccessToken(UserDetails userDetails, int securityVersion) {
+        return generateToken(userDetails, securityVersion, TOKEN_TYPE_ACCESS, accessTokenExpirationTimeInMs);
     }
 
-    public String generateRefreshToken(UserDetails userDetails) {
-        return generateToken(userDetails, refreshTokenExpirationTimeInMs);
+    public String generateRefreshToken(UserDetails userDetails, int securityVersion) {
+        return generateToken(userDetails, securityVersion, TOKEN_TYPE_REFRESH, refreshTokenExpirationTimeInMs);
     }
 
-    public String generateToken(UserDetails userDetails, long expirationTime) {
+    // role + security version nằm trong claim đã ký để JwtFilter dựng principal mà không cần truy vấn users
+    public String generateToken(UserDetails userDetails, int securityVersion, String type, long expirationTime) {
+        String role = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .findFirst()
+                .orElse(null);
+
         return Jwts.builder()
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expirationTime))
                 .claim("jti", UUID.randomUUID().toString())
+                .claim("role", role)
+                .claim("ver", securityVersion)
+                .claim("typ", type)
                 .signWith(key)
                 .compact();
     }
 
     public String extractAccessToken(HttpServletRequest request) {
+        return extractCookie(request, "access_token");
+    }
+
+    public String extractRefreshToken(HttpServletRequest request) {
+        return extractCookie(request, "refresh_token");
+    }
+
+    private String extractCookie(HttpServletRequest request, String name) {
         String token = null;
 
         if (request.getCookies() != null) {
             for (Cookie cookie : request.getCookies()) {
-                if ("access_token".equals(cookie.getName())) {
+                if (name.equals(cookie.getName())) {
                     token = cookie.getValue();
                 }
             }
@@ -57,33 +110,64 @@ public class JwtUtils {
     }
 
     public String extractUsername(String token) {
-        return parseAllClaims(token).getSubject();
+        return verifyOrThrow(token).subject();
     }
 
     public String extractJti(String token) {
-        return parseAllClaims(token).get("jti", String.class);
+        return verifyOrThrow(token).jti();
     }
 
     public Instant extractExpiration(String token) {
-        return parseAllClaims(token).getExpiration().toInstant();
+        return verifyOrThrow(token).expiresAt();
     }
 
 
     public boolean isValid(String token) {
+        return verify(token).isPresent();
+    }
+
+    /**
+     * Kiểm tra chữ ký và hạn của token, mỗi token chỉ được parse một lần cho tới khi bị loại khỏi cache
+     */
+    public Optional<VerifiedToken> verify(String token) {
         try {
-            parseAllClaims(token);
-            return true;
+            return Optional.of(verifyOrThrow(token));
         } catch (Exception e) {
             System.out.println("Token is invalid");
-            return false;
+            return Optional.empty();
         }
     }
 
     public Claims parseAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    private VerifiedToken verifyOrThrow(String token) {
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parseAllClaims(token);
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                claims.get("jti", String.class),
+                claims.getExpiration().toInstant(),
+                claims.get("role", String.class),
+                claims.get("ver", Integer.class),
+                claims.get("typ", String.class)
+        );
+        verifiedTokens.put(digest, verified);
+        return verified;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
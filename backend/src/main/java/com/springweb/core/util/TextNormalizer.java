@@ -0,0 +1,79 @@
+package com.springweb.core.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chuẩn hóa văn bản tiếng Việt cho tìm kiếm: chữ thường, bỏ dấu ("Hà Nội" → "ha noi"), tách từ.
+ * Bảng ánh xạ ký tự được tính sẵn một lần bằng NFD nên mỗi lần gọi chỉ là một vòng lặp qua chuỗi.
+ */
+public final class TextNormalizer {
+    // Bao trùm Latin mở rộng, dấu tổ hợp và Latin Extended Additional (các nguyên âm có dấu của tiếng Việt)
+    private static final int TABLE_SIZE = 0x1F00;
+    private static final char SKIP = 0;
+    private static final char SEPARATOR = ' ';
+    private static final char[] FOLD = buildTable();
+
+    private TextNormalizer() {
+    }
+
+    public static String fold(String text) {
+        return String.join(" ", tokenize(text));
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = fold(text.charAt(i));
+            if (c == SKIP) {
+                continue;
+            }
+            if (c == SEPARATOR) {
+                if (!token.isEmpty()) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                }
+            } else {
+                token.append(c);
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    private static char fold(char c) {
+        if (c < TABLE_SIZE) {
+            return FOLD[c];
+        }
+        return Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : SEPARATOR;
+    }
+
+    private static char[] buildTable() {
+        char[] table = new char[TABLE_SIZE];
+        for (char c = 0; c < TABLE_SIZE; c++) {
+            int type = Character.getType(c);
+            if (type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK
+                    || type == Character.ENCLOSING_MARK) {
+                // dấu tổ hợp của văn bản đã ở dạng NFD: bỏ đi mà không tách từ
+                table[c] = SKIP;
+            } else if (!Character.isLetterOrDigit(c)) {
+                table[c] = SEPARATOR;
+            } else {
+                String decomposed = Normalizer.normalize(String.valueOf(Character.toLowerCase(c)), Normalizer.Form.NFD);
+                table[c] = decomposed.charAt(0);
+            }
+        }
+        // đ/Đ không phải ký tự tổ hợp nên NFD không tách được dấu
+        table['đ'] = 'd';
+        table['Đ'] = 'd';
+        return table;
+    }
+}
@@ -0,0 +1,23 @@
+package com.springweb.core.util;
+
+import java.time.Instant;
+
+/**
+ * Các claim cần dùng của một JWT đã được kiểm tra chữ ký
+ */
+public record VerifiedToken(
+        String subject,
+        String jti,
+        Instant expiresAt,
+        String role,
+        Integer securityVersion,
+        String type
+) {
+    public boolean isAccessToken() {
+        return JwtUtils.TOKEN_TYPE_ACCESS.equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return JwtUtils.TOKEN_TYPE_REFRESH.equals(type);
+    }
+}
@@ -0,0 +1,39 @@
+package com.springweb.core.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Kết quả đọc kèm phiên bản (ETag + Last-Modified) tính từ dấu thời gian sửa đổi.
+ * Phần thân chỉ được dựng khi client chưa có bản hiện tại, để trả 304 mà không phải map DTO.
+ */
+public record Versioned<T>(
+        String etag,
+        Instant lastModified,
+        Supplier<T> body
+) {
+    public static <T> Versioned<T> of(Instant lastModified, Supplier<T> body, Object... versionParts) {
+        return new Versioned<>(etagOf(versionParts), lastModified, body);
+    }
+
+    public long lastModifiedMillis() {
+        return lastModified != null ? lastModified.toEpochMilli() : -1;
+    }
+
+    private static String etagOf(Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+use spring_boot_db;
+
+-- ======================
+-- EVENT_REMINDERS_SENT: nhắc lịch trước sự kiện (24h, 1h) đã gửi
+-- unique (event, loại nhắc, giờ bắt đầu): nhiều node cùng tới hạn thì chỉ node insert được mới gửi;
+-- đổi giờ bắt đầu thì là lần nhắc mới
+-- ======================
+create table event_reminders_sent
+(
+    reminder_id   int auto_increment primary key,
+    event_id      int         not null,
+    reminder_type varchar(10) not null,
+    start_at      datetime    not null,
+    sent_at       datetime(6) not null,
+    constraint uq_event_reminders_sent_event_type_start unique (event_id, reminder_type, start_at),
+    constraint fk_event_reminders_sent_event foreign key (event_id) references events (event_id) on delete cascade
+);
@@ -0,0 +1,7 @@
+use spring_boot_db;
+
+-- ======================
+-- JWT TOKEN BLACKLIST: đồng bộ giữa các node đọc theo created_at (có khoảng chồng lấn) thay vì theo id tự tăng
+-- ======================
+create index idx_jwt_token_blacklist_created_at
+    on jwt_token_blacklist (created_at);
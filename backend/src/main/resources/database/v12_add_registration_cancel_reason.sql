@@ -0,0 +1,8 @@
+use spring_boot_db;
+
+-- ======================
+-- EVENT_REGISTRATIONS: lý do hủy đơn, để thông báo "sự kiện đã bị hủy" chỉ gửi cho các đơn bị hủy theo sự kiện
+-- (trước đây nhận ra qua cancel_at == thời điểm đóng, nên trùng với người tự hủy trong cùng giây)
+-- ======================
+alter table event_registrations
+    add column cancel_reason varchar(20) null after cancel_at;
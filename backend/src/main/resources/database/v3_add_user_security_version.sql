@@ -0,0 +1,7 @@
+use spring_boot_db;
+
+-- ======================
+-- USERS: security version, tăng mỗi khi khóa tài khoản / đổi quyền để vô hiệu token cũ
+-- ======================
+alter table users
+    add column security_version int not null default 0 after status;
@@ -0,0 +1,89 @@
+use spring_boot_db;
+
+-- ======================
+-- JWT TOKEN BLACKLIST: index cho jti / expires_at và partition theo ngày hết hạn
+-- ======================
+-- Bảng partition của MySQL không hỗ trợ foreign key và mọi unique key (kể cả PK) phải chứa cột partition
+alter table jwt_token_blacklist
+    drop foreign key jwt_token_blacklist_ibfk_1;
+
+alter table jwt_token_blacklist
+    modify expires_at datetime not null,
+    drop primary key,
+    add primary key (jwt_token_id, expires_at);
+
+create index idx_jwt_token_blacklist_jti
+    on jwt_token_blacklist (jti);
+
+create index idx_jwt_token_blacklist_expires_at
+    on jwt_token_blacklist (expires_at);
+
+-- Mỗi partition chứa các token hết hạn trong một ngày; p_future nhận mọi thứ chưa có partition riêng
+alter table jwt_token_blacklist
+    partition by range (to_days(expires_at)) (
+        partition p_start values less than (to_days('2026-01-01')),
+        partition p_future values less than maxvalue
+    );
+
+-- Xóa các partition đã hết hạn hoàn toàn (rẻ hơn nhiều so với DELETE) và tạo sẵn partition cho days_ahead ngày tới
+drop procedure if exists rotate_jwt_token_blacklist_partitions;
+
+delimiter //
+create procedure rotate_jwt_token_blacklist_partitions(in days_ahead int)
+begin
+    declare done int default false;
+    declare p_name varchar(64);
+    declare last_bound int;
+    declare expired_partitions cursor for
+        select partition_name
+        from information_schema.partitions
+        where table_schema = database()
+          and table_name = 'jwt_token_blacklist'
+          and partition_description <> 'MAXVALUE'
+          and cast(partition_description as unsigned) <= to_days(curdate())
+        order by partition_ordinal_position;
+    declare continue handler for not found set done = true;
+
+    open expired_partitions;
+    drop_loop: loop
+        fetch expired_partitions into p_name;
+        if done then
+            leave drop_loop;
+        end if;
+        set @sql = concat('alter table jwt_token_blacklist drop partition ', p_name);
+        prepare stmt from @sql;
+        execute stmt;
+        deallocate prepare stmt;
+    end loop;
+    close expired_partitions;
+
+    select coalesce(max(cast(partition_description as unsigned)), to_days(curdate()))
+    into last_bound
+    from information_schema.partitions
+    where table_schema = database()
+      and table_name = 'jwt_token_blacklist'
+      and partition_description <> 'MAXVALUE';
+
+    set last_bound = greatest(last_bound, to_days(curdate()));
+
+    while last_bound <= to_days(curdate()) + days_ahead do
+        set @sql = concat(
+                'alter table jwt_token_blacklist reorganize partition p_future into (',
+                'partition p', date_format(from_days(last_bound), '%Y%m%d'),
+                ' values less than (', last_bound + 1, '),',
+                ' partition p_future values less than maxvalue)');
+        prepare stmt from @sql;
+        execute stmt;
+        deallocate prepare stmt;
+        set last_bound = last_bound + 1;
+    end while;
+end //
+delimiter ;
+
+call rotate_jwt_token_blacklist_partitions(7);
+
+-- Cần bật event_scheduler (set global event_scheduler = on)
+create event if not exists ev_rotate_jwt_token_blacklist_partitions
+    on schedule every 1 day
+        starts (curdate() + interval 1 day)
+    do call rotate_jwt_token_blacklist_partitions(7);
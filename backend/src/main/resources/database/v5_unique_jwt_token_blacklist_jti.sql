@@ -0,0 +1,10 @@
+use spring_boot_db;
+
+-- ======================
+-- JWT TOKEN BLACKLIST: mỗi JTI chỉ được thu hồi một lần (phát hiện refresh token bị dùng lại giữa các node)
+-- unique key của bảng partition phải chứa expires_at; một JTI luôn có đúng một expires_at
+-- ======================
+drop index idx_jwt_token_blacklist_jti on jwt_token_blacklist;
+
+create unique index uq_jwt_token_blacklist_jti
+    on jwt_token_blacklist (jti, expires_at);
@@ -0,0 +1,34 @@
+use spring_boot_db;
+
+-- ======================
+-- EVENTS: index cho các tổ hợp lọc của danh sách sự kiện (EventSpecifications)
+-- ======================
+-- lọc theo trạng thái (+ vị trí), sắp theo thời gian bắt đầu
+create index idx_events_status_location_start
+    on events (status, city, district, ward, start_at);
+
+-- lọc theo trạng thái, sắp theo thời gian bắt đầu (trường hợp phổ biến nhất: chỉ APPROVED)
+create index idx_events_status_start
+    on events (status, start_at);
+
+-- lọc theo danh mục (+ trạng thái), sắp theo thời gian bắt đầu
+create index idx_events_category_status_start
+    on events (category_id, status, start_at);
+
+-- không lọc: sắp xếp và phân trang keyset theo (start_at, event_id)
+create index idx_events_start_id
+    on events (start_at, event_id);
+
+-- Kiểm tra sau khi chạy migration: cột "key" của EXPLAIN phải là index tương ứng, "type" là ref/range thay vì ALL
+-- explain select * from events where status = 'APPROVED' order by start_at desc limit 10;
+--     -> idx_events_status_start
+-- explain select * from events where status = 'APPROVED' and city = 'Hà Nội' order by start_at desc limit 10;
+--     -> idx_events_status_location_start
+-- explain select * from events where status = 'APPROVED' and city = 'Hà Nội' and district = 'Cầu Giấy' and ward = 'Dịch Vọng' order by start_at desc limit 10;
+--     -> idx_events_status_location_start (không cần filesort)
+-- explain select * from events where category_id = 1 and status = 'APPROVED' order by start_at desc limit 10;
+--     -> idx_events_category_status_start (không cần filesort)
+-- explain select * from events where category_id = 1 order by start_at desc limit 10;
+--     -> idx_events_category_status_start
+-- explain select * from events where start_at < '2026-12-01' or (start_at = '2026-12-01' and event_id < 100) order by start_at desc, event_id desc limit 11;
+--     -> idx_events_start_id
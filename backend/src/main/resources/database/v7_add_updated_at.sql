@@ -0,0 +1,11 @@
+use spring_boot_db;
+
+-- ======================
+-- EVENTS, POSTS: thời điểm sửa đổi cuối, dùng làm ETag / Last-Modified cho các API đọc
+-- ON UPDATE để cả các câu UPDATE hàng loạt (không qua Hibernate) cũng đổi dấu thời gian
+-- ======================
+alter table events
+    add column updated_at timestamp(6) not null default current_timestamp(6) on update current_timestamp(6);
+
+alter table posts
+    add column updated_at timestamp(6) not null default current_timestamp(6) on update current_timestamp(6);
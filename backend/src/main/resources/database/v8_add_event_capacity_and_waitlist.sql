@@ -0,0 +1,31 @@
+use spring_boot_db;
+
+-- ======================
+-- EVENTS: sức chứa (null = không giới hạn) và số chỗ đã cấp
+-- seats_taken chỉ được đổi bằng UPDATE có điều kiện (cấp chỗ nguyên tử, không khóa toàn cục)
+-- ======================
+alter table events
+    add column capacity int null after status,
+    add column seats_taken int not null default 0 after capacity;
+
+-- ======================
+-- EVENT_REGISTRATIONS: mỗi người chỉ một đơn cho một sự kiện
+-- ======================
+-- giữ đơn đầu tiên nếu dữ liệu cũ có đơn trùng (do kiểm tra rồi mới insert)
+delete r1 from event_registrations r1
+    join event_registrations r2
+      on r1.user_id = r2.user_id and r1.event_id = r2.event_id and r1.registration_id > r2.registration_id;
+
+alter table event_registrations
+    add constraint uq_event_registrations_user_event unique (user_id, event_id);
+
+-- danh sách chờ: lấy đơn WAITLISTED sớm nhất của sự kiện
+create index idx_event_registrations_event_status_date
+    on event_registrations (event_id, status, registration_date);
+
+-- số chỗ đã cấp = số đơn còn giữ chỗ hiện có
+update events e
+set seats_taken = (select count(*)
+                   from event_registrations r
+                   where r.event_id = e.event_id
+                     and r.status in ('PENDING', 'APPROVED', 'COMPLETED'));
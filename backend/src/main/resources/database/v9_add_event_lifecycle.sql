@@ -0,0 +1,25 @@
+use spring_boot_db;
+
+-- ======================
+-- EVENTS: bộ lập lịch vòng đời tìm sự kiện APPROVED đã kết thúc theo (status, end_at)
+-- (sự kiện PENDING đã qua giờ bắt đầu dùng idx_events_status_start có sẵn)
+-- ======================
+create index idx_events_status_end
+    on events (status, end_at);
+
+-- ======================
+-- SCHEDULER_LEASES: khóa thuê theo thời hạn để mỗi job định kỳ chỉ chạy trên một node tại một thời điểm
+-- node nào cập nhật được dòng (hết hạn hoặc đang là chủ) thì giữ khóa tới lease_until
+-- ======================
+create table scheduler_leases
+(
+    name        varchar(64)  not null primary key,
+    owner       varchar(128) null,
+    lease_until datetime(6)  not null
+);
+
+insert into scheduler_leases (name, owner, lease_until)
+values ('event-lifecycle', null, '1970-01-01 00:00:01');
+
+-- Kiểm tra: explain select event_id from events where status = 'APPROVED' and end_at <= now() order by end_at limit 100;
+--     -> idx_events_status_end
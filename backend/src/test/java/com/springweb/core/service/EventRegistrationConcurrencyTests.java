@@ -0,0 +1,163 @@
+package com.springweb.core.service;
+
+import com.springweb.core.entity.Event;
+import com.springweb.core.entity.EventRegistration;
+import com.springweb.core.entity.EventStatus;
+import com.springweb.core.entity.RegistrationStatus;
+import com.springweb.core.entity.Role;
+import com.springweb.core.entity.User;
+import com.springweb.core.repository.EventRegistrationRepository;
+import com.springweb.core.repository.EventRepository;
+import com.springweb.core.repository.NotificationRepository;
+import com.springweb.core.repository.RoleRepository;
+import com.springweb.core.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Đăng ký và hủy đăng ký đồng thời trên sự kiện đã đủ chỗ: không được deadlock,
+ * và số chỗ đã cấp phải khớp với số đơn đang giữ chỗ.
+ */
+@SpringBootTest
+class EventRegistrationConcurrencyTests {
+
+    private static final int ROUNDS = 5;
+    private static final int REGISTRANTS = 16;
+
+    @Autowired
+    private EventService eventService;
+    @Autowired
+    private EventRepository eventRepo;
+    @Autowired
+    private EventRegistrationRepository regRepo;
+    @Autowired
+    private UserRepository userRepo;
+    @Autowired
+    private RoleRepository roleRepo;
+    @Autowired
+    private NotificationRepository notificationRepo;
+
+    private final List<Event> events = new ArrayList<>();
+    private final List<User> users = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (Event event : events) {
+            regRepo.deleteAll(regRepo.findByEvent(event));
+            eventRepo.deleteById(event.getId());
+        }
+        users.forEach(user -> notificationRepo.deleteAll(notificationRepo.findByUserOrderByCreatedAtDesc(user)));
+        userRepo.deleteAll(users);
+    }
+
+    @Test
+    void concurrentRegisterAndCancelDoNotDeadlock() throws Exception {
+        Role role = roleRepo.findByName("ROLE_VOLUNTEER").orElseGet(() -> {
+            Role created = new Role();
+            created.setName("ROLE_VOLUNTEER");
+            return roleRepo.save(created);
+        });
+        User manager = newUser(role);
+
+        ExecutorService pool = Executors.newFixedThreadPool(REGISTRANTS + 1);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                Event event = newFullEvent(manager);
+                User holder = newUser(role);
+                eventService.registerEvent(event.getId(), holder.getEmail());
+
+                List<User> registrants = new ArrayList<>();
+                for (int i = 0; i < REGISTRANTS; i++) {
+                    registrants.add(newUser(role));
+                }
+
+                // mọi luồng cùng xuất phát: một người hủy chỗ trong khi những người khác đăng ký
+                CountDownLatch start = new CountDownLatch(1);
+                List<Callable<Void>> tasks = new ArrayList<>();
+                tasks.add(() -> {
+                    start.await();
+                    eventService.cancelRegistration(event.getId(), holder.getEmail());
+                    return null;
+                });
+                for (User registrant : registrants) {
+                    tasks.add(() -> {
+                        start.await();
+                        eventService.registerEvent(event.getId(), registrant.getEmail());
+                        return null;
+                    });
+                }
+
+                List<Future<Void>> futures = new ArrayList<>();
+                tasks.forEach(task -> futures.add(pool.submit(task)));
+                start.countDown();
+                for (Future<Void> future : futures) {
+                    // deadlock ở MySQL nổi lên thành CannotAcquireLockException và làm test thất bại
+                    future.get(30, TimeUnit.SECONDS);
+                }
+
+                assertSeatsConsistent(event.getId());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void assertSeatsConsistent(Integer eventId) {
+        Event event = eventRepo.findById(eventId).orElseThrow();
+        List<EventRegistration> regs = regRepo.findByEvent(event);
+        long holding = regs.stream()
+                .filter(r -> r.getStatus() == RegistrationStatus.PENDING || r.getStatus() == RegistrationStatus.APPROVED)
+                .count();
+        long waitlisted = regs.stream().filter(r -> r.getStatus() == RegistrationStatus.WAITLISTED).count();
+
+        assertEquals(1, holding, "chỗ trống phải được cấp lại cho đúng một người");
+        assertEquals(holding, event.getSeatsTaken().longValue());
+        assertEquals(REGISTRANTS - 1, waitlisted);
+        assertTrue(regs.stream().anyMatch(r -> r.getStatus() == RegistrationStatus.CANCELLED));
+    }
+
+    private Event newFullEvent(User manager) {
+        Event event = new Event();
+        event.setTitle("Concurrency test " + UUID.randomUUID());
+        event.setAddress("Test");
+        event.setStatus(EventStatus.APPROVED);
+        event.setCapacity(1);
+        event.setCreatedBy(manager);
+        event.setStartAt(Instant.now().plus(Duration.ofDays(7)));
+        event.setEndAt(Instant.now().plus(Duration.ofDays(8)));
+        event = eventRepo.save(event);
+        events.add(event);
+        return event;
+    }
+
+    private User newUser(Role role) {
+        String suffix = UUID.randomUUID().toString();
+        User user = userRepo.save(User.builder()
+                .role(role)
+                .fullName("Test " + suffix)
+                .email(suffix + "@test.local")
+                .password("x")
+                .status(User.UserStatus.ACTIVE)
+                .createdAt(Instant.now())
+                .build());
+        users.add(user);
+        return user;
+    }
+}
@@ -0,0 +1,150 @@
+package com.springweb.core.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đo tốc độ dựng index và độ trễ truy vấn của EventSearchIndex trên tập sự kiện giả lập.
+ * indexCorpus: thời gian đánh index toàn bộ corpus (chia cho corpusSize ra thông lượng).
+ * search: phân bố độ trễ một truy vấn (SampleTime, xem p0.99).
+ * Chạy: mvn test-compile rồi chạy main của class này với classpath test (cần -Xmx đủ lớn cho 1M sự kiện).
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EventSearchIndexBenchmark {
+
+    private static final String[] TITLE_WORDS = {
+            "Tình nguyện", "dọn dẹp", "bãi biển", "trồng cây", "hiến máu", "mùa hè", "xanh", "trao quà",
+            "trẻ em", "vùng cao", "người già", "sách", "áo ấm", "bữa cơm", "yêu thương", "môi trường",
+            "tái chế", "rác thải", "dạy học", "miễn phí", "khám bệnh", "cứu trợ", "lũ lụt", "đường phố"
+    };
+    private static final String[] CATEGORIES = {
+            "Môi trường", "Giáo dục", "Y tế", "Cộng đồng", "Cứu trợ", "Văn hóa", "Thể thao", "Động vật"
+    };
+    private static final String[] CITIES = {
+            "Hà Nội", "Hồ Chí Minh", "Đà Nẵng", "Hải Phòng", "Cần Thơ", "Huế", "Nha Trang", "Đà Lạt"
+    };
+    private static final String[] DISTRICTS = {
+            "Ba Đình", "Hoàn Kiếm", "Cầu Giấy", "Đống Đa", "Quận 1", "Quận 3", "Bình Thạnh", "Hải Châu",
+            "Sơn Trà", "Ninh Kiều", "Lê Chân", "Thủ Đức"
+    };
+    private static final String[] WARDS = {
+            "Phúc Xá", "Trúc Bạch", "Hàng Bạc", "Dịch Vọng", "Bến Nghé", "Đa Kao", "Phường 1", "Phường 2",
+            "Thạch Thang", "An Hải", "Tân An", "Linh Trung", "Quan Hoa", "Láng Hạ", "Kim Mã", "Ngọc Hà"
+    };
+    private static final String[] DESCRIPTION_WORDS = {
+            "cùng", "chung", "tay", "hỗ", "trợ", "cộng", "đồng", "tham", "gia", "hoạt", "động", "ý", "nghĩa",
+            "đăng", "ký", "ngay", "số", "lượng", "có", "hạn", "mang", "theo", "nước", "uống", "găng", "tay",
+            "lan", "tỏa", "năng", "lượng", "tích", "cực", "sinh", "viên", "thanh", "niên", "gia", "đình",
+            "bảo", "vệ", "thiên", "nhiên", "kết", "nối", "chia", "sẻ", "khó", "khăn", "địa", "phương"
+    };
+    private static final String[] QUERIES = {
+            "don dep bai bien", "hiến máu", "trong cay ha noi", "Đà Nẵng", "áo ấm vùng cao",
+            "giao duc tre em", "cứu trợ lũ", "moi truong tai che quan 1", "khám bệnh miễn phí", "da"
+    };
+
+    static List<EventSearchIndex.Field> randomEvent(SplittableRandom random) {
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < 4; i++) {
+            title.append(TITLE_WORDS[random.nextInt(TITLE_WORDS.length)]).append(' ');
+        }
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            description.append(DESCRIPTION_WORDS[random.nextInt(DESCRIPTION_WORDS.length)]).append(' ');
+        }
+        // vài từ hiếm để vocabulary không quá nhỏ
+        description.append("ma").append(random.nextInt(50_000));
+        return List.of(
+                new EventSearchIndex.Field(title.toString(), 3f),
+                new EventSearchIndex.Field(CATEGORIES[random.nextInt(CATEGORIES.length)], 2f),
+                new EventSearchIndex.Field(CITIES[random.nextInt(CITIES.length)], 2f),
+                new EventSearchIndex.Field(DISTRICTS[random.nextInt(DISTRICTS.length)], 2f),
+                new EventSearchIndex.Field(WARDS[random.nextInt(WARDS.length)], 2f),
+                new EventSearchIndex.Field(description.toString(), 1f)
+        );
+    }
+
+    static List<List<EventSearchIndex.Field>> corpus(int size) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<List<EventSearchIndex.Field>> documents = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            documents.add(randomEvent(random));
+        }
+        return documents;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Corpus {
+        @Param("1000000")
+        public int corpusSize;
+
+        List<List<EventSearchIndex.Field>> documents;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            documents = corpus(corpusSize);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class FilledIndex {
+        EventSearchIndex index;
+        int next;
+
+        @Setup(Level.Trial)
+        public void fill(Corpus corpus) {
+            index = new EventSearchIndex();
+            for (int i = 0; i < corpus.documents.size(); i++) {
+                index.index(i + 1, corpus.documents.get(i));
+            }
+            corpus.documents = null;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public EventSearchIndex indexCorpus(Corpus corpus) {
+        EventSearchIndex index = new EventSearchIndex();
+        List<List<EventSearchIndex.Field>> documents = corpus.documents;
+        for (int i = 0; i < documents.size(); i++) {
+            index.index(i + 1, documents.get(i));
+        }
+        return index;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public List<Integer> search(FilledIndex state) {
+        String query = QUERIES[state.next++ % QUERIES.length];
+        return state.index.search(query, 20);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EventSearchIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
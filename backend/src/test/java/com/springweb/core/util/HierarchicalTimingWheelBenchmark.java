@@ -0,0 +1,107 @@
+package com.springweb.core.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đo chi phí đặt / hủy / kích hoạt hàng loạt hẹn giờ của HierarchicalTimingWheel
+ * với tick 1 giây và deadline rải đều trong 30 ngày (giống nhắc lịch sự kiện).
+ * Cả ba đều là SingleShotTime trên timerCount hẹn giờ, chia cho timerCount ra chi phí mỗi hẹn giờ.
+ * Chạy: mvn test-compile rồi chạy main của class này với classpath test.
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class HierarchicalTimingWheelBenchmark {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final long START_MILLIS = 1_700_000_000_000L;
+    private static final long HORIZON_MILLIS = Duration.ofDays(30).toMillis();
+
+    @State(Scope.Benchmark)
+    public static class Deadlines {
+        @Param("1000000")
+        public int timerCount;
+
+        long[] deadlines;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            SplittableRandom random = new SplittableRandom(42);
+            deadlines = new long[timerCount];
+            for (int i = 0; i < timerCount; i++) {
+                deadlines[i] = START_MILLIS + 1 + random.nextLong(HORIZON_MILLIS);
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public HierarchicalTimingWheel<Integer> scheduleAll(Deadlines state) {
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(TICK_MILLIS, START_MILLIS);
+        long[] deadlines = state.deadlines;
+        for (int i = 0; i < deadlines.length; i++) {
+            wheel.schedule(i, deadlines[i]);
+        }
+        return wheel;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    @SuppressWarnings("unchecked")
+    public int scheduleThenCancelAll(Deadlines state) {
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(TICK_MILLIS, START_MILLIS);
+        long[] deadlines = state.deadlines;
+        HierarchicalTimingWheel.Timeout<Integer>[] timeouts = new HierarchicalTimingWheel.Timeout[deadlines.length];
+        for (int i = 0; i < deadlines.length; i++) {
+            timeouts[i] = wheel.schedule(i, deadlines[i]);
+        }
+        for (HierarchicalTimingWheel.Timeout<Integer> timeout : timeouts) {
+            wheel.cancel(timeout);
+        }
+        return wheel.size();
+    }
+
+    /** Đặt rồi quay kim hết 30 ngày (≈2,6 triệu tick), gồm cả chi phí hạ cấp */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public int scheduleThenExpireAll(Deadlines state, Blackhole blackhole) {
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(TICK_MILLIS, START_MILLIS);
+        long[] deadlines = state.deadlines;
+        for (int i = 0; i < deadlines.length; i++) {
+            wheel.schedule(i, deadlines[i]);
+        }
+        return wheel.advance(START_MILLIS + HORIZON_MILLIS + TICK_MILLIS, blackhole::consume);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HierarchicalTimingWheelBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
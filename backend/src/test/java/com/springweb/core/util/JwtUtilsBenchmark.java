@@ -0,0 +1,87 @@
+package com.springweb.core.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+
+import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh chi phí xác thực token trong JwtFilter: cách cũ (3 lần dựng parser + kiểm tra HMAC)
+ * với parser dùng lại và cache token đã kiểm tra.
+ * Chạy: mvn test-compile rồi chạy main của class này với classpath test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilsBenchmark {
+
+    private SecretKey key;
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        key = Jwts.SIG.HS256.key().build();
+        jwtUtils = new JwtUtils(key, 50_000, Duration.ofMinutes(5));
+        token = jwtUtils.generateAccessToken(User.withUsername("volunteer@gmail.com")
+                .password("")
+                .authorities("ROLE_VOLUNTEER")
+                .build(), 0);
+    }
+
+    /** Đường cũ: isValid + extractJti + extractUsername, mỗi lần dựng parser mới */
+    @Benchmark
+    public String legacyThreeVerifications() {
+        legacyParse(token);
+        String jti = legacyParse(token).get("jti", String.class);
+        String subject = legacyParse(token).getSubject();
+        return jti + subject;
+    }
+
+    /** Parser dùng lại, một lần kiểm tra chữ ký (cache miss) */
+    @Benchmark
+    public String reusableParserSingleVerification() {
+        Claims claims = jwtUtils.parseAllClaims(token);
+        return claims.get("jti", String.class) + claims.getSubject();
+    }
+
+    /** Đường mới trong JwtFilter khi token đã có trong cache */
+    @Benchmark
+    public String cachedVerification() {
+        VerifiedToken verified = jwtUtils.verify(token).orElseThrow();
+        return verified.jti() + verified.subject();
+    }
+
+    private Claims legacyParse(String token) {
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtUtilsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}